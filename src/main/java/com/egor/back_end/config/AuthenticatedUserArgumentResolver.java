@@ -0,0 +1,32 @@
+package com.egor.back_end.config;
+
+import com.egor.back_end.service.AuthenticatedUser;
+import com.egor.back_end.service.AuthenticatedUserResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+// Lets controller methods take an AuthenticatedUser parameter for the current request
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+
+    public AuthenticatedUserArgumentResolver(AuthenticatedUserResolver authenticatedUserResolver) {
+        this.authenticatedUserResolver = authenticatedUserResolver;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType().equals(AuthenticatedUser.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authenticatedUserResolver.resolve(authentication);
+    }
+}
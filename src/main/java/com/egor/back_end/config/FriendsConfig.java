@@ -0,0 +1,9 @@
+package com.egor.back_end.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FriendsProperties.class)
+public class FriendsConfig {
+}
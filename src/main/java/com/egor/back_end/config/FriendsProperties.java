@@ -0,0 +1,13 @@
+package com.egor.back_end.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "friends")
+public record FriendsProperties(@DefaultValue Suggestions suggestions) {
+    // Precomputed suggestions per user: recomputed on friendship changes nearby, never older than maxStaleness
+    public record Suggestions(@DefaultValue("10000") long cacheSize,
+                              @DefaultValue("10m") Duration maxStaleness) {}
+}
@@ -7,7 +7,18 @@ import java.time.Duration;
 
 @ConfigurationProperties(prefix = "jwt")
 public record JwtProperties(String secretKey,
-                            @DefaultValue Token token) {
+                            @DefaultValue Token token,
+                            @DefaultValue DecoderCache decoderCache,
+                            @DefaultValue RefreshToken refreshToken) {
+    // Access tokens are short-lived, clients renew them with a refresh token
     public record Token(@DefaultValue("komp_app") String issuer,
-                        @DefaultValue("8h") Duration lifetime) {}
+                        @DefaultValue("15m") Duration lifetime) {}
+
+    // A token rotated less than reuseGrace ago is treated as a concurrent refresh by the same client
+    // (rejected, nothing else revoked); after that, presenting it again revokes all the user's tokens
+    public record RefreshToken(@DefaultValue("30d") Duration lifetime,
+                               @DefaultValue("10s") Duration reuseGrace) {}
+
+    // Verified tokens kept per token until they expire
+    public record DecoderCache(@DefaultValue("10000") long size) {}
 }
@@ -0,0 +1,26 @@
+package com.egor.back_end.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "notifications")
+public record NotificationProperties(@DefaultValue Counters counters,
+                                     @DefaultValue Dispatch dispatch,
+                                     @DefaultValue Retention retention) {
+    // Unread counter cache: bounded by size, entries expire so other instances' writes are picked up
+    public record Counters(@DefaultValue("10000") long cacheSize,
+                           @DefaultValue("5m") Duration cacheTtl) {}
+
+    // Fan-out queue: when it stays full for offerTimeout, the caller writes its notifications itself
+    public record Dispatch(@DefaultValue("10000") int queueCapacity,
+                           @DefaultValue("200") int batchSize,
+                           @DefaultValue("100ms") Duration offerTimeout) {}
+
+    // Retention: read notifications older than readMaxAge are removed, and each user keeps at most maxPerUser
+    public record Retention(@DefaultValue("true") boolean enabled,
+                            @DefaultValue("90d") Duration readMaxAge,
+                            @DefaultValue("500") int maxPerUser,
+                            @DefaultValue("500") int chunkSize) {}
+}
@@ -0,0 +1,40 @@
+package com.egor.back_end.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class PasswordHashingConfig {
+
+    /**
+     * New hashes are stored as {id}hash with the configured algorithm. Hashes from before the
+     * {id} prefix are plain bcrypt. On login, a hash made with another algorithm or weaker
+     * parameters is replaced (see UserDetailsServiceImpl#updatePassword).
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        final var bcrypt = new BCryptPasswordEncoder(properties.bcryptStrength());
+        final Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8(),
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        );
+        if (!encoders.containsKey(properties.algorithm())) {
+            throw new IllegalStateException("Unsupported password hashing algorithm: " + properties.algorithm()
+                    + " (supported: " + encoders.keySet() + ")");
+        }
+
+        final var encoder = new DelegatingPasswordEncoder(properties.algorithm(), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+}
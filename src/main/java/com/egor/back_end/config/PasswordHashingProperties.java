@@ -0,0 +1,13 @@
+package com.egor.back_end.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "security.password")
+public record PasswordHashingProperties(@DefaultValue("bcrypt") String algorithm,
+                                        @DefaultValue("12") int bcryptStrength,
+                                        @DefaultValue Executor executor) {
+    // Hashing threads (0 = one per CPU) and how many logins/signups may wait for one
+    public record Executor(@DefaultValue("0") int threads,
+                           @DefaultValue("200") int queueCapacity) {}
+}
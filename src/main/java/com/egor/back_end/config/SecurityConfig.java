@@ -5,6 +5,7 @@ import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.OctetSequenceKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -18,8 +19,6 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
@@ -75,8 +74,9 @@ public class SecurityConfig {
                                 .requestMatchers("/status").permitAll()
                                 // Allow all access to error endpoints
                                 .requestMatchers("/error/**").permitAll()
-                                // Allow all to login and signup
+                                // Allow all to login and signup, and to renew or end a session with a refresh token
                                 .requestMatchers("/users/login", "/users/signup").permitAll()
+                                .requestMatchers("/users/token/refresh", "/users/logout").permitAll()
                                 // Allow OpenAPI access
                                 .requestMatchers("/v3/api-docs/**").permitAll()
                                 // Allow Swagger UI
@@ -103,11 +103,6 @@ public class SecurityConfig {
         return source;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
-    }
-
     @Bean
     public SecretKey secretKey(JwtProperties jwtProperties) throws NoSuchAlgorithmException {
         final var secretKeyProperty = jwtProperties.secretKey();
@@ -124,8 +119,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtDecoder jwtDecoder(SecretKey secretKey) {
-        return NimbusJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS256).build();
+    public JwtDecoder jwtDecoder(SecretKey secretKey, JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        final var decoder = NimbusJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS256).build();
+        return new CachingJwtDecoder(decoder, jwtProperties.decoderCache().size(), meterRegistry);
     }
 
     @Bean
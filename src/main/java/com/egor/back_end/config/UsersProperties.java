@@ -0,0 +1,13 @@
+package com.egor.back_end.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "users")
+public record UsersProperties(@DefaultValue PrincipalCache principalCache) {
+    // Username -> user summary for tokens without a user ID claim; evicted on rename, never older than ttl
+    public record PrincipalCache(@DefaultValue("10000") long size,
+                                 @DefaultValue("10m") Duration ttl) {}
+}
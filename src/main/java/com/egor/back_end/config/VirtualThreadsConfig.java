@@ -0,0 +1,50 @@
+package com.egor.back_end.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Active with spring.threads.virtual.enabled=true, which makes Spring Boot run Tomcat requests,
+ * the @Async executor and @Scheduled jobs on virtual threads. Every request still needs one of the
+ * few pooled connections, so the number of threads using the database at once is capped at the
+ * Hikari pool size. Password hashing keeps its own bounded platform pool (PasswordHashingExecutor).
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    // Same pool Spring Boot would create (spring.datasource.*, spring.datasource.hikari.*), declared here
+    // because Boot backs off once another DataSource bean exists. It stays visible as a HikariDataSource
+    // for pool metrics, health and anything injecting it by type.
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource hikariDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // What JPA, JdbcTemplate and Flyway use. Waiting for a permit and then for Hikari can take up to
+    // twice connectionTimeout (see ConcurrencyLimitingDataSource).
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource hikari, ObjectProvider<MeterRegistry> meterRegistry) {
+        final var limited = new ConcurrencyLimitingDataSource(
+                hikari, hikari.getMaximumPoolSize(), Duration.ofMillis(hikari.getConnectionTimeout()));
+        meterRegistry.ifAvailable(registry -> Gauge
+                .builder("db.limiter.waiting", limited, ConcurrencyLimitingDataSource::getWaitingCount)
+                .description("Threads waiting for a database connection permit")
+                .register(registry));
+        return limited;
+    }
+}
@@ -0,0 +1,22 @@
+package com.egor.back_end.config;
+
+import com.egor.back_end.service.AuthenticatedUserResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+
+    public WebConfig(AuthenticatedUserResolver authenticatedUserResolver) {
+        this.authenticatedUserResolver = authenticatedUserResolver;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new AuthenticatedUserArgumentResolver(authenticatedUserResolver));
+    }
+}
@@ -2,14 +2,20 @@ package com.egor.back_end.controller;
 
 import com.egor.back_end.dto.competition.CompetitionCreateDto;
 import com.egor.back_end.dto.competition.CompetitionDto;
+import com.egor.back_end.dto.competition.CompetitionImportDto;
 import com.egor.back_end.dto.competition.CompetitionParticipantDto;
 import com.egor.back_end.dto.competition.ParticipantDto;
+import com.egor.back_end.service.AuthenticatedUser;
+import com.egor.back_end.service.CompetitionExportService;
+import com.egor.back_end.service.CompetitionImportService;
 import com.egor.back_end.service.CompetitionService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,21 +23,38 @@ import java.util.List;
 @RequestMapping("/competitions")
 public class CompetitionController {
     private final CompetitionService competitionService;
+    private final CompetitionExportService competitionExportService;
+    private final CompetitionImportService competitionImportService;
 
-    public CompetitionController(CompetitionService competitionService) {
+    public CompetitionController(CompetitionService competitionService,
+                                 CompetitionExportService competitionExportService,
+                                 CompetitionImportService competitionImportService) {
         this.competitionService = competitionService;
+        this.competitionExportService = competitionExportService;
+        this.competitionImportService = competitionImportService;
     }
 
     @PostMapping
     public ResponseEntity<CompetitionDto> createCompetition(
             @Valid @RequestBody CompetitionCreateDto dto,
-            Authentication authentication) {
-        String username = authentication.getName();
-        
-        CompetitionDto competition = competitionService.createCompetitionByUsername(username, dto);
+            AuthenticatedUser user) {
+        CompetitionDto competition = competitionService.createCompetition(user.id(), dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(competition);
     }
 
+    // A competition with bots, matches and scores in one request, the caller becomes the creator
+    @PostMapping("/import")
+    public ResponseEntity<?> importCompetition(
+            @Valid @RequestBody CompetitionImportDto dto,
+            AuthenticatedUser user) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(competitionImportService.importCompetition(user, dto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CompetitionDto> getCompetition(@PathVariable Long id) {
         CompetitionDto competition = competitionService.getCompetitionById(id);
@@ -56,6 +79,26 @@ public class CompetitionController {
         return ResponseEntity.ok(participants);
     }
 
+    // Full history (participants, bots, matches, scores) streamed as newline-delimited JSON
+    @GetMapping(value = "/{id}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportCompetition(@PathVariable Long id) {
+        try {
+            StreamingResponseBody body = competitionExportService.export(id);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"competition-" + id + ".ndjson\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{id}/standings/rebuild")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<List<ParticipantDto>> rebuildStandings(@PathVariable Long id) {
+        List<ParticipantDto> participants = competitionService.rebuildStandings(id);
+        return ResponseEntity.ok(participants);
+    }
+
     @GetMapping("/{id}/selectable-participants")
     public ResponseEntity<List<CompetitionParticipantDto>> getSelectableParticipants(@PathVariable Long id) {
         List<CompetitionParticipantDto> participants = competitionService.getAllSelectableParticipants(id);
@@ -65,10 +108,8 @@ public class CompetitionController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCompetition(
             @PathVariable Long id,
-            Authentication authentication) {
-        String username = authentication.getName();
-        
-        competitionService.deleteCompetitionByUsername(id, username);
+            AuthenticatedUser user) {
+        competitionService.deleteCompetition(id, user.id());
         return ResponseEntity.noContent().build();
     }
 
@@ -76,20 +117,16 @@ public class CompetitionController {
     public ResponseEntity<CompetitionDto> addParticipants(
             @PathVariable Long id,
             @RequestBody AddParticipantsRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        
-        CompetitionDto competition = competitionService.addParticipants(id, request.participantIds(), username);
+            AuthenticatedUser user) {
+        CompetitionDto competition = competitionService.addParticipants(id, request.participantIds(), user.id());
         return ResponseEntity.ok(competition);
     }
 
     @DeleteMapping("/{id}/leave")
     public ResponseEntity<Void> leaveCompetition(
             @PathVariable Long id,
-            Authentication authentication) {
-        String username = authentication.getName();
-        
-        competitionService.leaveCompetition(id, username);
+            AuthenticatedUser user) {
+        competitionService.leaveCompetition(id, user);
         return ResponseEntity.noContent().build();
     }
 
@@ -1,10 +1,12 @@
 package com.egor.back_end.controller;
 
+import com.egor.back_end.dto.user.FriendSuggestionDto;
 import com.egor.back_end.dto.user.ReceivedFriendRequestDto;
 import com.egor.back_end.dto.user.RespondFriendRequestDto;
 import com.egor.back_end.dto.user.SendFriendRequestDto;
 import com.egor.back_end.model.FriendRequest;
 import com.egor.back_end.service.FriendRequestService;
+import com.egor.back_end.service.FriendSuggestionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,10 +17,13 @@ import java.util.List;
 @RequestMapping("/friends")
 public class FriendRequestController {
     private final FriendRequestService friendRequestService;
+    private final FriendSuggestionService friendSuggestionService;
 
     @Autowired
-    public FriendRequestController(FriendRequestService friendRequestService) {
+    public FriendRequestController(FriendRequestService friendRequestService,
+                                   FriendSuggestionService friendSuggestionService) {
         this.friendRequestService = friendRequestService;
+        this.friendSuggestionService = friendSuggestionService;
     }
 
     @PostMapping("/send")
@@ -62,23 +67,11 @@ public class FriendRequestController {
     }
 
     @GetMapping("/suggestions/{userId}")
-    public ResponseEntity<List<com.egor.back_end.dto.user.FriendSuggestionDto>> getFriendSuggestions(
+    public ResponseEntity<List<FriendSuggestionDto>> getFriendSuggestions(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "10") int limit) {
         try {
-            List<com.egor.back_end.model.User> suggestions = friendRequestService.getFriendSuggestions(userId, limit);
-            List<com.egor.back_end.dto.user.FriendSuggestionDto> dtoList = suggestions.stream()
-                    .map(user -> {
-                        com.egor.back_end.model.User currentUser = friendRequestService.getUserById(userId);
-                        int mutualCount = friendRequestService.getMutualFriendsCount(currentUser, user);
-                        return new com.egor.back_end.dto.user.FriendSuggestionDto(
-                                user.getId(),
-                                user.getUsername(),
-                                mutualCount
-                        );
-                    })
-                    .toList();
-            return ResponseEntity.ok(dtoList);
+            return ResponseEntity.ok(friendSuggestionService.getSuggestions(userId, limit));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
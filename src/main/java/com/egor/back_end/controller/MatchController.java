@@ -1,12 +1,13 @@
 package com.egor.back_end.controller;
 
+import com.egor.back_end.dto.common.CursorPageDto;
 import com.egor.back_end.dto.match.MatchCreateDto;
 import com.egor.back_end.dto.match.MatchDto;
+import com.egor.back_end.service.AuthenticatedUser;
 import com.egor.back_end.service.MatchService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,9 +24,9 @@ public class MatchController {
     @PostMapping
     public ResponseEntity<MatchDto> createMatch(
             @Valid @RequestBody MatchCreateDto dto,
-            Authentication authentication) {
+            AuthenticatedUser user) {
         try {
-            MatchDto match = matchService.createMatch(dto, authentication.getName());
+            MatchDto match = matchService.createMatch(dto, user);
             return ResponseEntity.status(HttpStatus.CREATED).body(match);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -38,6 +39,19 @@ public class MatchController {
         return ResponseEntity.ok(matches);
     }
 
+    @GetMapping("/competition/{competitionId}/page")
+    public ResponseEntity<CursorPageDto<MatchDto>> getMatchPage(
+            @PathVariable Long competitionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorPageDto<MatchDto> page = matchService.getMatchPage(competitionId, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{matchId}")
     public ResponseEntity<MatchDto> getMatch(@PathVariable Long matchId) {
         try {
@@ -51,9 +65,9 @@ public class MatchController {
     @PostMapping("/{matchId}/start")
     public ResponseEntity<MatchDto> startMatch(
             @PathVariable Long matchId,
-            Authentication authentication) {
+            AuthenticatedUser user) {
         try {
-            MatchDto match = matchService.startMatch(matchId, authentication.getName());
+            MatchDto match = matchService.startMatch(matchId, user);
             return ResponseEntity.ok(match);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -63,9 +77,9 @@ public class MatchController {
     @DeleteMapping("/{matchId}")
     public ResponseEntity<Void> deleteMatch(
             @PathVariable Long matchId,
-            Authentication authentication) {
+            AuthenticatedUser user) {
         try {
-            matchService.deleteMatch(matchId, authentication.getName());
+            matchService.deleteMatch(matchId, user);
             return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -76,9 +90,9 @@ public class MatchController {
     public ResponseEntity<MatchDto> submitScores(
             @PathVariable Long matchId,
             @Valid @RequestBody com.egor.back_end.dto.match.SubmitScoresDto dto,
-            Authentication authentication) {
+            AuthenticatedUser user) {
         try {
-            MatchDto match = matchService.submitScores(dto, authentication.getName());
+            MatchDto match = matchService.submitScores(dto, user);
             return ResponseEntity.ok(match);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -1,46 +1,78 @@
 package com.egor.back_end.controller;
 
+import com.egor.back_end.dto.common.CursorPageDto;
 import com.egor.back_end.dto.notification.NotificationDto;
+import com.egor.back_end.model.NotificationType;
+import com.egor.back_end.service.AuthenticatedUser;
 import com.egor.back_end.service.NotificationService;
+import com.egor.back_end.service.NotificationStreamService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/notifications")
 public class NotificationController {
     private final NotificationService notificationService;
+    private final NotificationStreamService notificationStreamService;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService,
+                                  NotificationStreamService notificationStreamService) {
         this.notificationService = notificationService;
+        this.notificationStreamService = notificationStreamService;
     }
 
     @GetMapping
-    public ResponseEntity<List<NotificationDto>> getNotifications(Authentication authentication) {
-        List<NotificationDto> notifications = notificationService.getUserNotifications(authentication.getName());
+    public ResponseEntity<List<NotificationDto>> getNotifications(AuthenticatedUser user) {
+        List<NotificationDto> notifications = notificationService.getUserNotifications(user.id());
         return ResponseEntity.ok(notifications);
     }
 
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageDto<NotificationDto>> getNotificationFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            AuthenticatedUser user) {
+        try {
+            CursorPageDto<NotificationDto> page = notificationService.getNotificationFeed(
+                    user.id(), cursor, size, unreadOnly);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Server-Sent Events: "notification" for every new notification, "unread-count" whenever the count changes
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> streamNotifications(AuthenticatedUser user) {
+        return notificationStreamService.stream(user.id());
+    }
+
     @GetMapping("/unread")
-    public ResponseEntity<List<NotificationDto>> getUnreadNotifications(Authentication authentication) {
-        List<NotificationDto> notifications = notificationService.getUnreadNotifications(authentication.getName());
+    public ResponseEntity<List<NotificationDto>> getUnreadNotifications(AuthenticatedUser user) {
+        List<NotificationDto> notifications = notificationService.getUnreadNotifications(user.id());
         return ResponseEntity.ok(notifications);
     }
 
     @GetMapping("/unread/count")
-    public ResponseEntity<Integer> getUnreadCount(Authentication authentication) {
-        Integer count = notificationService.getUnreadCount(authentication.getName());
+    public ResponseEntity<Integer> getUnreadCount(AuthenticatedUser user) {
+        Integer count = notificationService.getUnreadCount(user.id());
         return ResponseEntity.ok(count);
     }
 
     @PostMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(
             @PathVariable Long id,
-            Authentication authentication) {
+            AuthenticatedUser user) {
         try {
-            notificationService.markAsRead(id, authentication.getName());
+            notificationService.markAsRead(id, user);
             return ResponseEntity.ok().build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -48,8 +80,11 @@ public class NotificationController {
     }
 
     @PostMapping("/read-all")
-    public ResponseEntity<Void> markAllAsRead(Authentication authentication) {
-        notificationService.markAllAsRead(authentication.getName());
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Integer> markAllAsRead(
+            @RequestParam(required = false) NotificationType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            AuthenticatedUser user) {
+        int updated = notificationService.markAllAsRead(user, type, before);
+        return ResponseEntity.ok(updated);
     }
 }
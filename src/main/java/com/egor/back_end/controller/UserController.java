@@ -1,22 +1,33 @@
 package com.egor.back_end.controller;
 
+import com.egor.back_end.dto.common.CursorPageDto;
 import com.egor.back_end.dto.user.*;
 import com.egor.back_end.model.User;
+import com.egor.back_end.service.PasswordHashingExecutor;
+import com.egor.back_end.service.RefreshTokenService;
 import com.egor.back_end.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenService refreshTokenService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          PasswordHashingExecutor passwordHashingExecutor,
+                          RefreshTokenService refreshTokenService) {
         this.userService = userService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @PutMapping("/profile")
@@ -26,18 +37,42 @@ public class UserController {
     }
 
     @GetMapping
-    public List<User> getUsers() {
-        return userService.getAllUsers();
+    public ResponseEntity<CursorPageDto<UserSummaryDto>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(userService.getUserPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    // Login and signup hash a password, which runs on the hashing pool while the request thread is released
     @PostMapping("/login")
-    public AuthenticationResponse login(@RequestBody AuthenticationRequest authenticationRequest) {
-        return userService.authenticate(authenticationRequest.username(), authenticationRequest.password());
+    public CompletableFuture<AuthenticationResponse> login(@RequestBody AuthenticationRequest authenticationRequest) {
+        return passwordHashingExecutor.submit(() ->
+                userService.authenticate(authenticationRequest.username(), authenticationRequest.password()));
+    }
+
+    // New access token (and a new refresh token) without checking the password again
+    @PostMapping("/token/refresh")
+    public ResponseEntity<AuthenticationResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(refreshTokenService.refresh(request.refreshToken()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.refreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/signup")
-    public User signup(@Valid @RequestBody UserCreateDto userCreateDto) {
-        return userService.signup(userCreateDto);
+    public CompletableFuture<User> signup(@Valid @RequestBody UserCreateDto userCreateDto) {
+        return passwordHashingExecutor.submit(() -> userService.signup(userCreateDto));
     }
 
     @GetMapping("/friends/{userId}")
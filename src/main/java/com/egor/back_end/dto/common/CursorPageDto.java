@@ -0,0 +1,10 @@
+package com.egor.back_end.dto.common;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing, nextCursor is null on the last page
+public record CursorPageDto<T>(
+        List<T> items,
+        String nextCursor
+) {
+}
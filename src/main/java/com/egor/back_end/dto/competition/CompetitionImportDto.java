@@ -0,0 +1,30 @@
+package com.egor.back_end.dto.competition;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// A whole competition with its history, imported in one request (the caller becomes the creator)
+public record CompetitionImportDto(
+        @NotBlank(message = "Title is required")
+        @Size(max = 50, message = "Title must not exceed 50 characters")
+        String title,
+
+        @NotBlank(message = "Icon is required")
+        @Size(max = 10, message = "Icon must not exceed 10 characters")
+        String icon,
+
+        @NotNull(message = "Participant IDs are required")
+        List<Long> participantIds,
+
+        // Bots are created by name and referenced by name in the matches
+        @Size(max = 3, message = "A competition can have at most 3 bots")
+        List<String> bots,
+
+        @NotNull(message = "Matches are required")
+        @Valid
+        List<MatchImportDto> matches
+) {}
@@ -0,0 +1,9 @@
+package com.egor.back_end.dto.competition;
+
+public record CompetitionImportResultDto(
+        Long competitionId,
+        int participants,
+        int bots,
+        int matches,
+        int scores
+) {}
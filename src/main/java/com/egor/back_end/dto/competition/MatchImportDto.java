@@ -0,0 +1,16 @@
+package com.egor.back_end.dto.competition;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.Map;
+
+// Matches are numbered in payload order; a match with scores is imported as completed
+public record MatchImportDto(
+        @Size(max = 255, message = "Title must not exceed 255 characters")
+        String title,
+        List<Long> participantIds,
+        List<String> bots,
+        Map<Long, Integer> scores,
+        Map<String, Integer> botScores
+) {}
@@ -2,10 +2,11 @@ package com.egor.back_end.dto.user;
 
 import com.egor.back_end.model.Role;
 
-public record AuthenticationResponse(String message, String token, Long id, String username, String email, Role role) {
-    public AuthenticationResponse (String message, String token, Long id, String username, String email, Role role) {
+public record AuthenticationResponse(String message, String token, String refreshToken, Long id, String username, String email, Role role) {
+    public AuthenticationResponse (String message, String token, String refreshToken, Long id, String username, String email, Role role) {
         this.message = message;
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.username = username;
         this.email = email;
@@ -17,6 +18,9 @@ public record AuthenticationResponse(String message, String token, Long id, Stri
     public String getToken() {
         return token;
     }
+    public String getRefreshToken() {
+        return refreshToken;
+    }
     public Long getId() {
         return id;
     }
@@ -0,0 +1,8 @@
+package com.egor.back_end.dto.user;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequest(
+        @NotBlank(message = "Refresh token is required")
+        String refreshToken
+) {}
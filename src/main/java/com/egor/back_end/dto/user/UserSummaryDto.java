@@ -0,0 +1,9 @@
+package com.egor.back_end.dto.user;
+
+import com.egor.back_end.model.Role;
+
+public record UserSummaryDto(
+        Long id,
+        String username,
+        Role role
+) {}
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 @Table(name = "bots")
 public class Bot {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bots_seq")
+    @SequenceGenerator(name = "bots_seq", sequenceName = "bots_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -6,7 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "bot_scores")
 public class BotScore {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bot_scores_seq")
+    @SequenceGenerator(name = "bot_scores_seq", sequenceName = "bot_scores_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
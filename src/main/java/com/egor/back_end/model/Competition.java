@@ -11,7 +11,8 @@ import java.util.Set;
 @Table(name = "competitions")
 public class Competition {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "competitions_seq")
+    @SequenceGenerator(name = "competitions_seq", sequenceName = "competitions_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -0,0 +1,106 @@
+package com.egor.back_end.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "competition_standings")
+public class CompetitionStanding {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "competition_standings_seq")
+    @SequenceGenerator(name = "competition_standings_seq", sequenceName = "competition_standings_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "competition_id", nullable = false)
+    private Long competitionId;
+
+    // Positive for users, negative (-bot id) for bots
+    @Column(name = "participant_id", nullable = false)
+    private Long participantId;
+
+    @Column(name = "wins")
+    private int wins;
+
+    @Column(name = "draws")
+    private int draws;
+
+    @Column(name = "losses")
+    private int losses;
+
+    @Column(name = "matches_played")
+    private int matchesPlayed;
+
+    @Column(name = "points_scored")
+    private int pointsScored;
+
+    protected CompetitionStanding() {}
+
+    public CompetitionStanding(Long competitionId, Long participantId) {
+        this.competitionId = competitionId;
+        this.participantId = participantId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public void setCompetitionId(Long competitionId) {
+        this.competitionId = competitionId;
+    }
+
+    public Long getParticipantId() {
+        return participantId;
+    }
+
+    public void setParticipantId(Long participantId) {
+        this.participantId = participantId;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public void setWins(int wins) {
+        this.wins = wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public void setDraws(int draws) {
+        this.draws = draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public void setLosses(int losses) {
+        this.losses = losses;
+    }
+
+    public int getMatchesPlayed() {
+        return matchesPlayed;
+    }
+
+    public void setMatchesPlayed(int matchesPlayed) {
+        this.matchesPlayed = matchesPlayed;
+    }
+
+    public int getPointsScored() {
+        return pointsScored;
+    }
+
+    public void setPointsScored(int pointsScored) {
+        this.pointsScored = pointsScored;
+    }
+}
@@ -6,7 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "friend_requests")
 public class FriendRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "friend_requests_seq")
+    @SequenceGenerator(name = "friend_requests_seq", sequenceName = "friend_requests_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -6,7 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "match_scores")
 public class MatchScore {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "match_scores_seq")
+    @SequenceGenerator(name = "match_scores_seq", sequenceName = "match_scores_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
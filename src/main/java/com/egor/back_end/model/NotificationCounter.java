@@ -0,0 +1,38 @@
+package com.egor.back_end.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "notification_counters")
+public class NotificationCounter {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private int unreadCount;
+
+    protected NotificationCounter() {}
+
+    public NotificationCounter(Long userId, int unreadCount) {
+        this.userId = userId;
+        this.unreadCount = unreadCount;
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
@@ -0,0 +1,36 @@
+package com.egor.back_end.repository;
+
+import com.egor.back_end.model.CompetitionStanding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CompetitionStandingRepository extends JpaRepository<CompetitionStanding, Long> {
+    List<CompetitionStanding> findByCompetitionId(Long competitionId);
+
+    // Add a delta to a single standings row in place (taking a result out again), returns 0 when there is no row
+    @Modifying
+    @Query("UPDATE CompetitionStanding s SET " +
+           "s.wins = s.wins + :wins, " +
+           "s.draws = s.draws + :draws, " +
+           "s.losses = s.losses + :losses, " +
+           "s.matchesPlayed = s.matchesPlayed + :matchesPlayed, " +
+           "s.pointsScored = s.pointsScored + :pointsScored " +
+           "WHERE s.competitionId = :competitionId AND s.participantId = :participantId")
+    int applyDelta(@Param("competitionId") Long competitionId,
+                   @Param("participantId") Long participantId,
+                   @Param("wins") int wins,
+                   @Param("draws") int draws,
+                   @Param("losses") int losses,
+                   @Param("matchesPlayed") int matchesPlayed,
+                   @Param("pointsScored") int pointsScored);
+
+    @Modifying
+    @Query("DELETE FROM CompetitionStanding s WHERE s.competitionId = :competitionId")
+    void deleteByCompetitionId(@Param("competitionId") Long competitionId);
+}
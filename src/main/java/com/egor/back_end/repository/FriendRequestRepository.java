@@ -24,4 +24,10 @@ public interface FriendRequestRepository extends JpaRepository<FriendRequest, Lo
            "(fr.sender = :user1 AND fr.receiver = :user2) OR " +
            "(fr.sender = :user2 AND fr.receiver = :user1)")
     boolean existsRequestBetweenUsers(@Param("user1") User user1, @Param("user2") User user2);
+
+    // IDs of all users that have a friend request (any status) with the given user, in either direction
+    @Query(value = "SELECT receiver_id FROM friend_requests WHERE sender_id = :userId " +
+                   "UNION SELECT sender_id FROM friend_requests WHERE receiver_id = :userId",
+           nativeQuery = true)
+    List<Long> findRequestCounterpartIds(@Param("userId") Long userId);
 }
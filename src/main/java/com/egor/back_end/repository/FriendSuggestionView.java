@@ -0,0 +1,8 @@
+package com.egor.back_end.repository;
+
+// Friend-of-friend candidate with the number of friends it shares with the user
+public interface FriendSuggestionView {
+    Long getId();
+    String getUsername();
+    Long getMutualFriendsCount();
+}
@@ -1,7 +1,11 @@
 package com.egor.back_end.repository;
 
 import com.egor.back_end.model.Match;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,5 +13,53 @@ import java.util.List;
 @Repository
 public interface MatchRepository extends JpaRepository<Match, Long> {
     List<Match> findByCompetitionId(Long competitionId);
+
+    // Listing query: the competition is joined, the match collections are loaded in batches
+    // (hibernate.default_batch_fetch_size) when the DTOs are built
+    @EntityGraph(attributePaths = {"competition", "competition.creator"})
+    List<Match> findAllByCompetitionIdOrderByMatchNumberAsc(Long competitionId);
+
+    // Keyset pagination, newest first: first page
+    @EntityGraph(attributePaths = {"competition", "competition.creator"})
+    @Query("SELECT m FROM Match m WHERE m.competition.id = :competitionId " +
+           "ORDER BY m.matchNumber DESC, m.id DESC")
+    List<Match> findPageByCompetitionId(@Param("competitionId") Long competitionId, Limit limit);
+
+    // Keyset pagination, newest first: page after the (matchNumber, id) of the previous page's last match
+    @EntityGraph(attributePaths = {"competition", "competition.creator"})
+    @Query("SELECT m FROM Match m WHERE m.competition.id = :competitionId " +
+           "AND (m.matchNumber < :matchNumber OR (m.matchNumber = :matchNumber AND m.id < :id)) " +
+           "ORDER BY m.matchNumber DESC, m.id DESC")
+    List<Match> findPageByCompetitionIdAfter(@Param("competitionId") Long competitionId,
+                                             @Param("matchNumber") Integer matchNumber,
+                                             @Param("id") Long id,
+                                             Limit limit);
     Integer countByCompetitionId(Long competitionId);
+
+    // Wins/draws/losses/points per participant over all completed matches of a competition.
+    // A match is a draw for everyone when more than one participant shares the highest score.
+    @Query(value = "SELECT participant_id AS participantId, " +
+                   "SUM(CASE WHEN top_count = 1 AND score = top_score THEN 1 ELSE 0 END) AS wins, " +
+                   "SUM(CASE WHEN top_count > 1 THEN 1 ELSE 0 END) AS draws, " +
+                   "SUM(CASE WHEN top_count = 1 AND score <> top_score THEN 1 ELSE 0 END) AS losses, " +
+                   "COUNT(*) AS matchesPlayed, " +
+                   "COALESCE(SUM(score), 0) AS pointsScored " +
+                   "FROM (" +
+                   "  SELECT participant_id, score, top_score, " +
+                   "  SUM(CASE WHEN score = top_score THEN 1 ELSE 0 END) OVER (PARTITION BY match_id) AS top_count " +
+                   "  FROM (" +
+                   "    SELECT s.match_id, s.participant_id, s.score, " +
+                   "    MAX(s.score) OVER (PARTITION BY s.match_id) AS top_score " +
+                   "    FROM (" +
+                   "      SELECT match_id, user_id AS participant_id, score FROM match_scores " +
+                   "      UNION ALL " +
+                   "      SELECT match_id, -bot_id AS participant_id, score FROM bot_scores" +
+                   "    ) s " +
+                   "    JOIN matches m ON m.id = s.match_id " +
+                   "    WHERE m.competition_id = :competitionId AND m.status = 'COMPLETED'" +
+                   "  ) scored" +
+                   ") ranked " +
+                   "GROUP BY participant_id",
+           nativeQuery = true)
+    List<ParticipantStatsView> aggregateStandings(@Param("competitionId") Long competitionId);
 }
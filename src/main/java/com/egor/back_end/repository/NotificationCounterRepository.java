@@ -0,0 +1,30 @@
+package com.egor.back_end.repository;
+
+import com.egor.back_end.model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    // Reconciliation: create missing counter rows
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (user_id, unread_count) " +
+                   "SELECT u.id, 0 FROM users u " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM notification_counters c WHERE c.user_id = u.id)",
+           nativeQuery = true)
+    int insertMissingCounters();
+
+    // Reconciliation: correct counters that drifted from the real unread count, returns the number corrected
+    @Modifying
+    @Query(value = "UPDATE notification_counters c SET unread_count = " +
+                   "(SELECT COUNT(*) FROM notifications n WHERE n.user_id = c.user_id AND n.is_read = false) " +
+                   "WHERE c.unread_count <> " +
+                   "(SELECT COUNT(*) FROM notifications n WHERE n.user_id = c.user_id AND n.is_read = false)",
+           nativeQuery = true)
+    int correctDriftedCounters();
+}
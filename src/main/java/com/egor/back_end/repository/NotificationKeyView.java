@@ -0,0 +1,9 @@
+package com.egor.back_end.repository;
+
+import java.time.LocalDateTime;
+
+// Keyset position of a notification in a user's feed order (createdAt DESC, id DESC)
+public interface NotificationKeyView {
+    Long getId();
+    LocalDateTime getCreatedAt();
+}
@@ -1,15 +1,84 @@
 package com.egor.back_end.repository;
 
 import com.egor.back_end.model.Notification;
-import com.egor.back_end.model.User;
+import com.egor.back_end.model.NotificationType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserOrderByCreatedAtDesc(User user);
-    List<Notification> findByUserAndIsReadFalseOrderByCreatedAtDesc(User user);
-    Integer countByUserAndIsReadFalse(User user);
+    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+    List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
+
+    // Keyset-paginated feed, newest first: first page. readStates is {false} for unread only, {true, false} for all.
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isRead IN :readStates " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedPage(@Param("userId") Long userId,
+                                    @Param("readStates") Collection<Boolean> readStates,
+                                    Limit limit);
+
+    // Keyset-paginated feed, newest first: page after the (createdAt, id) of the previous page's last notification
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isRead IN :readStates " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeedPageAfter(@Param("userId") Long userId,
+                                         @Param("readStates") Collection<Boolean> readStates,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Limit limit);
+
+    // Bulk mark as read in a single UPDATE, returns the number of notifications changed
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.user.id = :userId AND n.isRead = false AND n.createdAt <= :before")
+    int markAllAsRead(@Param("userId") Long userId, @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true " +
+           "WHERE n.user.id = :userId AND n.isRead = false AND n.type = :type AND n.createdAt <= :before")
+    int markAllAsReadByType(@Param("userId") Long userId,
+                            @Param("type") NotificationType type,
+                            @Param("before") LocalDateTime before);
+
+    // Retention: next chunk of read notifications older than the cutoff, oldest first
+    @Query(value = "SELECT id FROM notifications WHERE is_read = true AND created_at < :cutoff " +
+                   "ORDER BY created_at, id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findExpiredReadIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Retention: users holding more notifications than the per-user cap
+    @Query(value = "SELECT user_id FROM notifications GROUP BY user_id HAVING COUNT(*) > :max",
+           nativeQuery = true)
+    List<Long> findUserIdsOverCap(@Param("max") int max);
+
+    // Retention: the newest notification of a user that falls outside the cap (offset = cap)
+    @Query(value = "SELECT id, created_at AS createdAt FROM notifications WHERE user_id = :userId " +
+                   "ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET :offset",
+           nativeQuery = true)
+    Optional<NotificationKeyView> findKeyAtOffset(@Param("userId") Long userId, @Param("offset") int offset);
+
+    // Retention: next chunk of a user's notifications at or beyond the given (createdAt, id), newest first
+    @Query(value = "SELECT id FROM notifications WHERE user_id = :userId " +
+                   "AND (created_at < :createdAt OR (created_at = :createdAt AND id <= :id)) " +
+                   "ORDER BY created_at DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findIdsFrom(@Param("userId") Long userId,
+                           @Param("createdAt") LocalDateTime createdAt,
+                           @Param("id") Long id,
+                           @Param("limit") int limit);
+
+    long countByIdInAndIsReadFalse(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,12 @@
+package com.egor.back_end.repository;
+
+// Per-participant totals aggregated in the database from completed match scores
+public interface ParticipantStatsView {
+    // Positive for users, negative (-bot id) for bots
+    Long getParticipantId();
+    Long getWins();
+    Long getDraws();
+    Long getLosses();
+    Long getMatchesPlayed();
+    Long getPointsScored();
+}
@@ -1,13 +1,77 @@
 package com.egor.back_end.repository;
 
+import com.egor.back_end.dto.user.FriendDto;
+import com.egor.back_end.dto.user.UserDto;
+import com.egor.back_end.dto.user.UserSummaryDto;
 import com.egor.back_end.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     Optional<User> findByUsername(String username);
-    List<User> findByUsernameContainingIgnoreCase(String username);
+
+    // Rehash on login: only the password column, and only if it still holds the hash that was checked,
+    // so a concurrent profile update or password change is not overwritten
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    // Username search, usernames are stored lowercase so the indexes can be used without LOWER().
+    // Patterns are escaped with '!' by the caller.
+    @Query("SELECT new com.egor.back_end.dto.user.UserDto(u.id, u.username, u.email, u.role) FROM User u " +
+           "WHERE u.username LIKE :prefix ESCAPE '!' ORDER BY u.username")
+    List<UserDto> searchByUsernamePrefix(@Param("prefix") String prefix, Limit limit);
+
+    @Query("SELECT new com.egor.back_end.dto.user.UserDto(u.id, u.username, u.email, u.role) FROM User u " +
+           "WHERE u.username LIKE :pattern ESCAPE '!' AND u.username NOT LIKE :prefix ESCAPE '!' " +
+           "ORDER BY u.username")
+    List<UserDto> searchByUsernameContaining(@Param("pattern") String pattern,
+                                             @Param("prefix") String prefix,
+                                             Limit limit);
+
+    @Query("SELECT new com.egor.back_end.dto.user.UserSummaryDto(u.id, u.username, u.role) FROM User u WHERE u.username = :username")
+    Optional<UserSummaryDto> findSummaryByUsername(@Param("username") String username);
+
+    // Keyset-paginated user listing in ID order: first page, then the page after the last ID seen
+    @Query("SELECT new com.egor.back_end.dto.user.UserSummaryDto(u.id, u.username, u.role) FROM User u ORDER BY u.id")
+    List<UserSummaryDto> findSummaryPage(Limit limit);
+
+    @Query("SELECT new com.egor.back_end.dto.user.UserSummaryDto(u.id, u.username, u.role) FROM User u " +
+           "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummaryDto> findSummaryPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.egor.back_end.dto.user.FriendDto(u.id, u.username) FROM User u WHERE u.id IN :ids")
+    List<FriendDto> findFriendDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Friends of friends ranked by mutual friends in one pass over user_friends. Every path
+    // user -> friend -> candidate is one mutual friend. Current friends and users with any
+    // friend request between them and the user (either direction) are excluded with anti-joins.
+    @Query(value = "SELECT u.id AS id, u.username AS username, COUNT(*) AS mutualFriendsCount " +
+                   "FROM user_friends f1 " +
+                   "JOIN user_friends f2 ON f2.user_id = f1.friend_id " +
+                   "JOIN users u ON u.id = f2.friend_id " +
+                   "WHERE f1.user_id = :userId AND f2.friend_id <> :userId " +
+                   "AND NOT EXISTS (SELECT 1 FROM user_friends f " +
+                   "  WHERE f.user_id = :userId AND f.friend_id = f2.friend_id) " +
+                   "AND NOT EXISTS (SELECT 1 FROM friend_requests r " +
+                   "  WHERE r.sender_id = :userId AND r.receiver_id = f2.friend_id) " +
+                   "AND NOT EXISTS (SELECT 1 FROM friend_requests r " +
+                   "  WHERE r.sender_id = f2.friend_id AND r.receiver_id = :userId) " +
+                   "GROUP BY u.id, u.username " +
+                   "ORDER BY mutualFriendsCount DESC, u.id " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<FriendSuggestionView> findFriendSuggestions(@Param("userId") Long userId, @Param("limit") int limit);
 }
@@ -0,0 +1,4 @@
+package com.egor.back_end.service;
+
+// The user behind the current request, resolved from the access token without touching the database
+public record AuthenticatedUser(Long id, String username) {}
@@ -0,0 +1,56 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.UsersProperties;
+import com.egor.back_end.dto.user.UserSummaryDto;
+import com.egor.back_end.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Turns the authenticated principal into a user ID. Tokens carry the ID as a claim; tokens issued
+// before that claim existed are resolved by username through a small cache.
+@Component
+public class AuthenticatedUserResolver {
+    private final UserRepository userRepository;
+    private final Cache<String, UserSummaryDto> cache;
+
+    public AuthenticatedUserResolver(UserRepository userRepository, UsersProperties usersProperties) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(usersProperties.principalCache().size())
+                .expireAfterWrite(usersProperties.principalCache().ttl())
+                .build();
+    }
+
+    public AuthenticatedUser resolve(Authentication authentication) {
+        String username = authentication.getName();
+        if (authentication.getPrincipal() instanceof Jwt jwt
+                && jwt.getClaim(JwtService.USER_ID_CLAIM) instanceof Number userId) {
+            return new AuthenticatedUser(userId.longValue(), username);
+        }
+
+        UserSummaryDto user = cache.get(username, name -> userRepository.findSummaryByUsername(name).orElse(null));
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        return new AuthenticatedUser(user.id(), user.username());
+    }
+
+    // The old username may be taken by someone else once the rename has committed
+    public void evictAfterCommit(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        } else {
+            cache.invalidate(username);
+        }
+    }
+}
@@ -16,10 +16,14 @@ import java.util.stream.Collectors;
 public class BotService {
     private final BotRepository botRepository;
     private final CompetitionRepository competitionRepository;
+    private final StandingsService standingsService;
 
-    public BotService(BotRepository botRepository, CompetitionRepository competitionRepository) {
+    public BotService(BotRepository botRepository,
+                      CompetitionRepository competitionRepository,
+                      StandingsService standingsService) {
         this.botRepository = botRepository;
         this.competitionRepository = competitionRepository;
+        this.standingsService = standingsService;
     }
 
     public List<BotDto> getBotsByCompetition(Long competitionId) {
@@ -36,6 +40,9 @@ public class BotService {
 
         // Delete existing bots for this competition
         botRepository.deleteByCompetitionId(competitionId);
+        // Their scores are removed with them, which can change match outcomes
+        botRepository.flush();
+        standingsService.rebuild(competitionId);
 
         // Create new bots
         List<Bot> bots = createDto.getUsernames().stream()
@@ -53,6 +60,8 @@ public class BotService {
     @Transactional
     public void deleteBotsByCompetition(Long competitionId) {
         botRepository.deleteByCompetitionId(competitionId);
+        botRepository.flush();
+        standingsService.rebuild(competitionId);
     }
 
     private BotDto convertToDto(Bot bot) {
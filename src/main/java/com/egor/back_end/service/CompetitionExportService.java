@@ -0,0 +1,173 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.repository.CompetitionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+// Full history of a competition as NDJSON: one JSON object per line, each with a "type".
+// Rows go from a forward-only JDBC cursor straight into a streaming JSON generator, so memory
+// use does not depend on the size of the competition.
+@Service
+public class CompetitionExportService {
+    // Rows fetched per round trip; PostgreSQL only uses a cursor inside a transaction
+    private static final int FETCH_SIZE = 500;
+
+    private final CompetitionRepository competitionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CompetitionExportService(CompetitionRepository competitionRepository,
+                                    DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper) {
+        this.competitionRepository = competitionRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    // Checked up front so a missing competition is reported before the response starts streaming
+    public StreamingResponseBody export(Long competitionId) {
+        if (!competitionRepository.existsById(competitionId)) {
+            throw new IllegalArgumentException("Competition not found");
+        }
+        return out -> transactionTemplate.executeWithoutResult(status -> write(competitionId, out));
+    }
+
+    private void write(Long competitionId, OutputStream out) {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Lines are separated explicitly, and the servlet stream is closed by Spring, not by us
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            stream(generator, "SELECT id, title, icon, creator_id, created_at FROM competitions WHERE id = ?",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "competition");
+                        generator.writeNumberField("id", rs.getLong("id"));
+                        generator.writeStringField("title", rs.getString("title"));
+                        generator.writeStringField("icon", rs.getString("icon"));
+                        generator.writeNumberField("creatorId", rs.getLong("creator_id"));
+                        writeTimestamp(generator, "createdAt", rs.getTimestamp("created_at"));
+                    });
+
+            stream(generator, "SELECT u.id, u.username FROM competition_participants cp " +
+                              "JOIN users u ON u.id = cp.user_id WHERE cp.competition_id = ? ORDER BY u.id",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "participant");
+                        generator.writeNumberField("userId", rs.getLong("id"));
+                        generator.writeStringField("username", rs.getString("username"));
+                    });
+
+            stream(generator, "SELECT id, username FROM bots WHERE competition_id = ? ORDER BY id",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "bot");
+                        generator.writeNumberField("botId", rs.getLong("id"));
+                        generator.writeStringField("username", rs.getString("username"));
+                    });
+
+            stream(generator, "SELECT id, match_number, title, status, scores_submitted, created_at, started_at " +
+                              "FROM matches WHERE competition_id = ? ORDER BY match_number, id",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "match");
+                        generator.writeNumberField("id", rs.getLong("id"));
+                        generator.writeNumberField("matchNumber", rs.getInt("match_number"));
+                        generator.writeStringField("title", rs.getString("title"));
+                        generator.writeStringField("status", rs.getString("status"));
+                        generator.writeBooleanField("scoresSubmitted", rs.getBoolean("scores_submitted"));
+                        writeTimestamp(generator, "createdAt", rs.getTimestamp("created_at"));
+                        writeTimestamp(generator, "startedAt", rs.getTimestamp("started_at"));
+                    });
+
+            stream(generator, "SELECT mp.match_id, mp.user_id FROM match_participants mp " +
+                              "JOIN matches m ON m.id = mp.match_id WHERE m.competition_id = ? " +
+                              "ORDER BY mp.match_id, mp.user_id",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "matchParticipant");
+                        generator.writeNumberField("matchId", rs.getLong("match_id"));
+                        generator.writeNumberField("userId", rs.getLong("user_id"));
+                    });
+
+            stream(generator, "SELECT mb.match_id, mb.bot_id FROM match_bot_participants mb " +
+                              "JOIN matches m ON m.id = mb.match_id WHERE m.competition_id = ? " +
+                              "ORDER BY mb.match_id, mb.bot_id",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "matchBot");
+                        generator.writeNumberField("matchId", rs.getLong("match_id"));
+                        generator.writeNumberField("botId", rs.getLong("bot_id"));
+                    });
+
+            stream(generator, "SELECT s.match_id, s.user_id, s.score, s.confirmed FROM match_scores s " +
+                              "JOIN matches m ON m.id = s.match_id WHERE m.competition_id = ? " +
+                              "ORDER BY s.match_id, s.user_id",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "score");
+                        generator.writeNumberField("matchId", rs.getLong("match_id"));
+                        generator.writeNumberField("userId", rs.getLong("user_id"));
+                        generator.writeNumberField("score", rs.getInt("score"));
+                        generator.writeBooleanField("confirmed", rs.getBoolean("confirmed"));
+                    });
+
+            stream(generator, "SELECT s.match_id, s.bot_id, s.score, s.confirmed FROM bot_scores s " +
+                              "JOIN matches m ON m.id = s.match_id WHERE m.competition_id = ? " +
+                              "ORDER BY s.match_id, s.bot_id",
+                    competitionId, rs -> {
+                        generator.writeStringField("type", "botScore");
+                        generator.writeNumberField("matchId", rs.getLong("match_id"));
+                        generator.writeNumberField("botId", rs.getLong("bot_id"));
+                        int score = rs.getInt("score");
+                        if (rs.wasNull()) {
+                            generator.writeNullField("score");
+                        } else {
+                            generator.writeNumberField("score", score);
+                        }
+                        generator.writeBooleanField("confirmed", rs.getBoolean("confirmed"));
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Write every row of the query as one NDJSON line
+    private void stream(JsonGenerator generator, String sql, Long competitionId, RowWriter writer) {
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            try {
+                generator.writeStartObject();
+                writer.write(rs);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, competitionId);
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, Timestamp value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeStringField(field, value.toLocalDateTime().toString());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
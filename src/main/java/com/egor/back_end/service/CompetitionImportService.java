@@ -0,0 +1,192 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.dto.competition.CompetitionImportDto;
+import com.egor.back_end.dto.competition.CompetitionImportResultDto;
+import com.egor.back_end.dto.competition.MatchImportDto;
+import com.egor.back_end.model.MatchStatus;
+import com.egor.back_end.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Bulk import of a competition with its bots, matches and scores. The whole payload is validated
+// in memory against ID sets loaded up front, then written with JDBC batch inserts using IDs
+// allocated from the pooled sequences.
+@Service
+public class CompetitionImportService {
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final StandingsService standingsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIdAllocator idAllocator;
+
+    public CompetitionImportService(UserRepository userRepository,
+                                    StandingsService standingsService,
+                                    JdbcTemplate jdbcTemplate,
+                                    PooledIdAllocator idAllocator) {
+        this.userRepository = userRepository;
+        this.standingsService = standingsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+    }
+
+    @Transactional
+    public CompetitionImportResultDto importCompetition(AuthenticatedUser creator, CompetitionImportDto dto) {
+        Set<Long> participants = new LinkedHashSet<>(dto.participantIds());
+        participants.add(creator.id());
+        Set<Long> existing = userRepository.findExistingIds(participants);
+        for (Long participantId : participants) {
+            if (!existing.contains(participantId)) {
+                throw new IllegalArgumentException("Participant with ID " + participantId + " not found");
+            }
+        }
+
+        List<String> bots = dto.bots() != null ? dto.bots() : List.of();
+        if (bots.stream().anyMatch(name -> name == null || name.isBlank())) {
+            throw new IllegalArgumentException("Bot names must not be blank");
+        }
+        if (new HashSet<>(bots).size() != bots.size()) {
+            throw new IllegalArgumentException("Bot names must be unique");
+        }
+
+        List<ImportedMatch> matches = new ArrayList<>(dto.matches().size());
+        for (MatchImportDto match : dto.matches()) {
+            matches.add(validateMatch(match, matches.size() + 1, participants, bots));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        long competitionId = idAllocator.allocate("competitions_seq", 1)[0];
+        jdbcTemplate.update("INSERT INTO competitions (id, title, icon, creator_id, created_at, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)",
+                competitionId, dto.title(), dto.icon(), creator.id(), now, now);
+
+        jdbcTemplate.batchUpdate("INSERT INTO competition_participants (competition_id, user_id) VALUES (?, ?)",
+                List.copyOf(participants), BATCH_SIZE, (ps, userId) -> {
+                    ps.setLong(1, competitionId);
+                    ps.setLong(2, userId);
+                });
+
+        long[] botIds = idAllocator.allocate("bots_seq", bots.size());
+        Map<String, Long> botIdsByName = new HashMap<>();
+        for (int i = 0; i < bots.size(); i++) {
+            botIdsByName.put(bots.get(i), botIds[i]);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bots (id, username, competition_id, created_at) VALUES (?, ?, ?, ?)",
+                bots, BATCH_SIZE, (ps, name) -> {
+                    ps.setLong(1, botIdsByName.get(name));
+                    ps.setString(2, name);
+                    ps.setLong(3, competitionId);
+                    ps.setObject(4, now);
+                });
+
+        long[] matchIds = idAllocator.allocate("matches_seq", matches.size());
+        jdbcTemplate.batchUpdate("INSERT INTO matches (id, title, competition_id, match_number, status, started_at, " +
+                                 "created_at, updated_at, scores_submitted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                matches, BATCH_SIZE, (ps, match) -> {
+                    ps.setLong(1, matchIds[match.matchNumber() - 1]);
+                    ps.setString(2, match.title());
+                    ps.setLong(3, competitionId);
+                    ps.setInt(4, match.matchNumber());
+                    ps.setString(5, match.status().name());
+                    ps.setObject(6, now);
+                    ps.setObject(7, now);
+                    ps.setObject(8, now);
+                    ps.setBoolean(9, match.status() == MatchStatus.COMPLETED);
+                });
+
+        // (match ID, participant or bot ID[, score]) rows for the link and score tables
+        List<long[]> matchParticipants = new ArrayList<>();
+        List<long[]> matchBots = new ArrayList<>();
+        List<long[]> scores = new ArrayList<>();
+        List<long[]> botScores = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            ImportedMatch match = matches.get(i);
+            long matchId = matchIds[i];
+            match.userIds().forEach(userId -> matchParticipants.add(new long[]{matchId, userId}));
+            match.bots().forEach(name -> matchBots.add(new long[]{matchId, botIdsByName.get(name)}));
+            match.scores().forEach((userId, score) -> scores.add(new long[]{matchId, userId, score}));
+            match.botScores().forEach((name, score) -> botScores.add(new long[]{matchId, botIdsByName.get(name), score}));
+        }
+
+        batchInsert("INSERT INTO match_participants (match_id, user_id) VALUES (?, ?)", matchParticipants);
+        batchInsert("INSERT INTO match_bot_participants (match_id, bot_id) VALUES (?, ?)", matchBots);
+        batchInsertWithIds("match_scores_seq",
+                "INSERT INTO match_scores (id, match_id, user_id, score, confirmed) VALUES (?, ?, ?, ?, true)", scores);
+        batchInsertWithIds("bot_scores_seq",
+                "INSERT INTO bot_scores (id, match_id, bot_id, score, confirmed) VALUES (?, ?, ?, ?, true)", botScores);
+
+        standingsService.rebuild(competitionId);
+
+        return new CompetitionImportResultDto(
+                competitionId,
+                participants.size(),
+                bots.size(),
+                matches.size(),
+                scores.size() + botScores.size()
+        );
+    }
+
+    private ImportedMatch validateMatch(MatchImportDto match, int matchNumber, Set<Long> participants, List<String> bots) {
+        String label = "Match " + matchNumber;
+        Set<Long> userIds = new LinkedHashSet<>(match.participantIds() != null ? match.participantIds() : List.of());
+        Set<String> botNames = new LinkedHashSet<>(match.bots() != null ? match.bots() : List.of());
+        Map<Long, Integer> scores = match.scores() != null ? match.scores() : Map.of();
+        Map<String, Integer> botScores = match.botScores() != null ? match.botScores() : Map.of();
+
+        if (userIds.isEmpty() && botNames.isEmpty()) {
+            throw new IllegalArgumentException(label + ": at least one participant is required");
+        }
+        for (Long userId : userIds) {
+            if (!participants.contains(userId)) {
+                throw new IllegalArgumentException(label + ": user " + userId + " is not a participant of this competition");
+            }
+        }
+        for (String name : botNames) {
+            if (!bots.contains(name)) {
+                throw new IllegalArgumentException(label + ": bot " + name + " is not part of this competition");
+            }
+        }
+        for (Map.Entry<Long, Integer> score : scores.entrySet()) {
+            if (!userIds.contains(score.getKey()) || score.getValue() == null) {
+                throw new IllegalArgumentException(label + ": invalid score for user " + score.getKey());
+            }
+        }
+        for (Map.Entry<String, Integer> score : botScores.entrySet()) {
+            if (!botNames.contains(score.getKey()) || score.getValue() == null) {
+                throw new IllegalArgumentException(label + ": invalid score for bot " + score.getKey());
+            }
+        }
+
+        String title = match.title() != null && !match.title().isBlank() ? match.title() : label;
+        MatchStatus status = scores.isEmpty() && botScores.isEmpty() ? MatchStatus.IN_PROGRESS : MatchStatus.COMPLETED;
+        return new ImportedMatch(title, matchNumber, status, userIds, botNames, scores, botScores);
+    }
+
+    private void batchInsert(String sql, List<long[]> rows) {
+        jdbcTemplate.batchUpdate(sql, rows, BATCH_SIZE, (ps, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                ps.setLong(i + 1, row[i]);
+            }
+        });
+    }
+
+    // Same as batchInsert, with a fresh ID from the sequence as the first column
+    private void batchInsertWithIds(String sequence, String sql, List<long[]> rows) {
+        long[] ids = idAllocator.allocate(sequence, rows.size());
+        List<long[]> rowsWithIds = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            long[] row = new long[rows.get(i).length + 1];
+            row[0] = ids[i];
+            System.arraycopy(rows.get(i), 0, row, 1, rows.get(i).length);
+            rowsWithIds.add(row);
+        }
+        batchInsert(sql, rowsWithIds);
+    }
+
+    private record ImportedMatch(String title, int matchNumber, MatchStatus status, Set<Long> userIds,
+                                 Set<String> bots, Map<Long, Integer> scores, Map<String, Integer> botScores) {}
+}
@@ -8,33 +8,31 @@ import com.egor.back_end.dto.user.UserDto;
 import com.egor.back_end.model.*;
 import com.egor.back_end.repository.BotRepository;
 import com.egor.back_end.repository.CompetitionRepository;
-import com.egor.back_end.repository.MatchRepository;
 import com.egor.back_end.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class CompetitionService {
     private final CompetitionRepository competitionRepository;
     private final UserRepository userRepository;
-    private final MatchRepository matchRepository;
     private final NotificationService notificationService;
     private final BotRepository botRepository;
+    private final StandingsService standingsService;
 
     public CompetitionService(CompetitionRepository competitionRepository, 
                             UserRepository userRepository,
-                            MatchRepository matchRepository,
                             NotificationService notificationService,
-                            BotRepository botRepository) {
+                            BotRepository botRepository,
+                            StandingsService standingsService) {
         this.competitionRepository = competitionRepository;
         this.userRepository = userRepository;
-        this.matchRepository = matchRepository;
         this.notificationService = notificationService;
         this.botRepository = botRepository;
+        this.standingsService = standingsService;
     }
 
     @Transactional
@@ -64,13 +62,6 @@ public class CompetitionService {
         return toDto(savedCompetition);
     }
 
-    @Transactional
-    public CompetitionDto createCompetitionByUsername(String username, CompetitionCreateDto dto) {
-        User creator = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("Creator not found"));
-        return createCompetition(creator.getId(), dto);
-    }
-
     public CompetitionDto getCompetitionById(Long id) {
         Competition competition = competitionRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Competition not found"));
@@ -97,108 +88,50 @@ public class CompetitionService {
         Competition competition = competitionRepository.findById(competitionId)
                 .orElseThrow(() -> new IllegalArgumentException("Competition not found"));
         
-        // Get all completed matches for this competition
-        List<Match> matches = matchRepository.findByCompetitionId(competitionId).stream()
-                .filter(match -> match.getStatus() == MatchStatus.COMPLETED)
-                .toList();
+        // Statistics are maintained per participant when match scores change
+        Map<Long, CompetitionStanding> standings = standingsService.getStandings(competitionId);
         
-        // Initialize statistics for each participant (users)
-        Map<Long, ParticipantStats> statsMap = new HashMap<>();
+        List<ParticipantDto> result = new ArrayList<>();
         for (User participant : competition.getParticipants()) {
-            statsMap.put(participant.getId(), new ParticipantStats(participant.getId(), participant.getUsername(), false));
+            result.add(toParticipantDto(participant.getId(), participant.getUsername(), false, standings));
         }
         
         // Add bots to participants (use negative IDs to distinguish from users)
         List<Bot> bots = botRepository.findByCompetitionId(competitionId);
         for (Bot bot : bots) {
-            // Use negative ID based on bot's actual ID to ensure uniqueness
-            Long botVirtualId = -bot.getId();
-            statsMap.put(botVirtualId, new ParticipantStats(botVirtualId, bot.getUsername(), true));
+            result.add(toParticipantDto(-bot.getId(), bot.getUsername(), true, standings));
         }
         
-        // Calculate statistics from matches
-        for (Match match : matches) {
-            if (match.getScores().isEmpty() && match.getBotScores().isEmpty()) continue;
-            
-            // Collect all scores (users + bots) for comparison
-            Map<Long, Integer> allScores = new HashMap<>();
-            
-            // Add user scores
-            for (MatchScore score : match.getScores()) {
-                allScores.put(score.getUser().getId(), score.getScore());
-            }
-            
-            // Add bot scores (use negative IDs to match statsMap)
-            for (BotScore botScore : match.getBotScores()) {
-                allScores.put(-botScore.getBot().getId(), botScore.getScore());
-            }
-            
-            // Find highest score
-            Integer highestScore = allScores.values().stream()
-                    .max(Integer::compareTo)
-                    .orElse(0);
-            
-            // Find all participants with highest score (for draws)
-            List<Long> winners = allScores.entrySet().stream()
-                    .filter(entry -> entry.getValue().equals(highestScore))
-                    .map(Map.Entry::getKey)
-                    .toList();
-            
-            boolean isDraw = winners.size() > 1;
-            
-            // Update stats for each participant in the match
-            for (Map.Entry<Long, Integer> entry : allScores.entrySet()) {
-                Long participantId = entry.getKey();
-                Integer score = entry.getValue();
-                
-                ParticipantStats stats = statsMap.get(participantId);
-                if (stats != null) {
-                    stats.matchesPlayed++;
-                    stats.pointsScored += score;
-                    
-                    if (isDraw) {
-                        stats.draws++;
-                    } else if (winners.contains(participantId)) {
-                        stats.wins++;
-                    } else {
-                        stats.losses++;
-                    }
-                }
-            }
+        // Sort by wins descending
+        result.sort((a, b) -> Integer.compare(b.wins(), a.wins()));
+        return result;
+    }
+
+    @Transactional
+    public List<ParticipantDto> rebuildStandings(Long competitionId) {
+        if (!competitionRepository.existsById(competitionId)) {
+            throw new IllegalArgumentException("Competition not found");
         }
-        
-        // Create DTOs sorted by wins descending
-        return statsMap.values().stream()
-                .map(stats -> new ParticipantDto(
-                        stats.userId,
-                        stats.username,
-                        stats.wins,
-                        stats.matchesPlayed,
-                        stats.draws,
-                        stats.losses,
-                        stats.pointsScored,
-                        stats.isBot
-                ))
-                .sorted((a, b) -> Integer.compare(b.wins(), a.wins()))
-                .collect(Collectors.toList());
+        standingsService.rebuild(competitionId);
+        return getParticipants(competitionId);
     }
-    
-    // Helper class to track participant statistics
-    private static class ParticipantStats {
-        Long userId;
-        String username;
-        Boolean isBot;
-        int wins = 0;
-        int matchesPlayed = 0;
-        int draws = 0;
-        int losses = 0;
-        int pointsScored = 0;
-        
-        ParticipantStats(Long userId, String username, Boolean isBot) {
-            this.userId = userId;
-            this.username = username;
-            this.isBot = isBot;
+
+    private ParticipantDto toParticipantDto(Long participantId, String username, boolean isBot,
+                                            Map<Long, CompetitionStanding> standings) {
+        CompetitionStanding standing = standings.get(participantId);
+        if (standing == null) {
+            return new ParticipantDto(participantId, username, 0, 0, 0, 0, 0, isBot);
         }
+        return new ParticipantDto(
+                participantId,
+                username,
+                standing.getWins(),
+                standing.getMatchesPlayed(),
+                standing.getDraws(),
+                standing.getLosses(),
+                standing.getPointsScored(),
+                isBot
+        );
     }
 
     @Transactional
@@ -215,22 +148,12 @@ public class CompetitionService {
     }
 
     @Transactional
-    public void deleteCompetitionByUsername(Long competitionId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        deleteCompetition(competitionId, user.getId());
-    }
-
-    @Transactional
-    public CompetitionDto addParticipants(Long competitionId, List<Long> participantIds, String username) {
+    public CompetitionDto addParticipants(Long competitionId, List<Long> participantIds, Long userId) {
         Competition competition = competitionRepository.findById(competitionId)
                 .orElseThrow(() -> new IllegalArgumentException("Competition not found"));
         
-        User requestingUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        
         // Check if the user is a participant in this competition
-        if (!competition.getParticipants().contains(requestingUser)) {
+        if (competition.getParticipants().stream().noneMatch(p -> p.getId().equals(userId))) {
             throw new IllegalArgumentException("Only participants can add friends to this competition");
         }
         
@@ -248,15 +171,12 @@ public class CompetitionService {
     }
 
     @Transactional
-    public void leaveCompetition(Long competitionId, String username) {
+    public void leaveCompetition(Long competitionId, AuthenticatedUser user) {
         Competition competition = competitionRepository.findById(competitionId)
                 .orElseThrow(() -> new IllegalArgumentException("Competition not found"));
         
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        
         // Check if user is the creator
-        if (competition.getCreator().getId().equals(user.getId())) {
+        if (competition.getCreator().getId().equals(user.id())) {
             throw new IllegalArgumentException("The creator cannot leave the competition. Delete it instead.");
         }
         
@@ -265,28 +185,27 @@ public class CompetitionService {
 
         // Check if user is a participant
         boolean isParticipant = participantsBeforeLeaving.stream()
-                .anyMatch(p -> p.getId().equals(user.getId()));
+                .anyMatch(p -> p.getId().equals(user.id()));
         
         if (!isParticipant) {
             throw new IllegalArgumentException("You are not a participant in this competition");
         }
         
         // Remove user from participants using native query to avoid Hibernate issues
-        competitionRepository.removeParticipant(competitionId, user.getId());
+        competitionRepository.removeParticipant(competitionId, user.id());
         competitionRepository.flush(); // Ensure the removal is persisted before notifying
 
         // Notify remaining participants
-        for (User participant : participantsBeforeLeaving) {
-            if (!participant.getId().equals(user.getId())) {
-                String message = String.format("%s has left the competition %s", user.getUsername(), competition.getTitle());
-                notificationService.createNotification(
-                    participant, 
-                    NotificationType.USER_LEFT_COMPETITION, 
-                    message,
-                    competition.getId()
-                );
-            }
-        }
+        List<User> recipients = participantsBeforeLeaving.stream()
+                .filter(participant -> !participant.getId().equals(user.id()))
+                .toList();
+        String message = String.format("%s has left the competition %s", user.username(), competition.getTitle());
+        notificationService.createNotifications(
+            recipients,
+            NotificationType.USER_LEFT_COMPETITION,
+            message,
+            competition.getId()
+        );
     }
 
     private CompetitionDto toDto(Competition competition) {
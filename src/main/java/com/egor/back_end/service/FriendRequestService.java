@@ -9,10 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Service
 @Transactional
@@ -21,14 +19,20 @@ public class FriendRequestService {
     private final UserRepository userRepository;
 
     private final NotificationService notificationService;
+    private final SocialGraphIndex socialGraphIndex;
+    private final FriendSuggestionService friendSuggestionService;
 
     @Autowired
     public FriendRequestService(FriendRequestRepository friendRequestRepository, 
                                UserRepository userRepository,
-                               NotificationService notificationService) {
+                               NotificationService notificationService,
+                               SocialGraphIndex socialGraphIndex,
+                               FriendSuggestionService friendSuggestionService) {
         this.friendRequestRepository = friendRequestRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.socialGraphIndex = socialGraphIndex;
+        this.friendSuggestionService = friendSuggestionService;
     }
 
     public void sendFriendRequest(Long senderId, String receiverUsername) {
@@ -39,7 +43,10 @@ public class FriendRequestService {
             throw new IllegalArgumentException("You cannot send a friend request to yourself!");
         }
 
-        if (sender.getFriends().contains(receiver)) {
+        boolean alreadyFriends = socialGraphIndex.isLoaded()
+                ? socialGraphIndex.areFriends(sender.getId(), receiver.getId())
+                : sender.getFriends().contains(receiver);
+        if (alreadyFriends) {
             throw new IllegalArgumentException("You are already friends with this user!");
         }
 
@@ -51,6 +58,7 @@ public class FriendRequestService {
         // Create and save request.
         FriendRequest friendRequest = new FriendRequest(sender, receiver);
         friendRequestRepository.save(friendRequest);
+        friendSuggestionService.invalidateAfterRequestChange(sender.getId(), receiver.getId());
         
         // Create notification for receiver
         notificationService.createNotification(
@@ -84,6 +92,8 @@ public class FriendRequestService {
             // Save both users
             userRepository.save(sender);
             userRepository.save(receiver);
+            socialGraphIndex.addFriendshipAfterCommit(sender.getId(), receiver.getId());
+            friendSuggestionService.refreshAfterFriendship(sender.getId(), receiver.getId());
             
             // Notify sender that request was accepted
             notificationService.createNotification(
@@ -95,6 +105,8 @@ public class FriendRequestService {
         } else {
             // Delete the friend request if rejected
             friendRequestRepository.delete(friendRequest);
+            friendSuggestionService.invalidateAfterRequestChange(
+                    friendRequest.getSender().getId(), friendRequest.getReceiver().getId());
         }
     }
 
@@ -123,54 +135,7 @@ public class FriendRequestService {
         }
 
         friendRequestRepository.delete(friendRequest);
-    }
-
-    public List<User> getFriendSuggestions(Long userId, int limit) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found!"));
-        
-        Set<User> currentFriends = user.getFriends();
-        Set<User> suggestions = new HashSet<>();
-        
-        // Get friends of friends
-        for (User friend : currentFriends) {
-            Set<User> friendsOfFriend = friend.getFriends();
-            for (User potentialFriend : friendsOfFriend) {
-                // Don't suggest:
-                // 1. The user themselves
-                // 2. Current friends
-                // 3. Users with pending/existing friend requests
-                if (!potentialFriend.equals(user) 
-                    && !currentFriends.contains(potentialFriend)
-                    && !friendRequestRepository.existsRequestBetweenUsers(user, potentialFriend)) {
-                    suggestions.add(potentialFriend);
-                }
-            }
-        }
-        
-        // Sort by number of mutual friends (descending)
-        return suggestions.stream()
-                .sorted((u1, u2) -> {
-                    int mutualCount1 = getMutualFriendsCount(user, u1);
-                    int mutualCount2 = getMutualFriendsCount(user, u2);
-                    return Integer.compare(mutualCount2, mutualCount1);
-                })
-                .limit(limit)
-                .toList();
-    }
-    
-    public int getMutualFriendsCount(User user1, User user2) {
-        Set<User> friends1 = user1.getFriends();
-        Set<User> friends2 = user2.getFriends();
-        
-        Set<User> mutualFriends = new HashSet<>(friends1);
-        mutualFriends.retainAll(friends2);
-        
-        return mutualFriends.size();
-    }
-    
-    public User getUserById(Long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found!"));
+        friendSuggestionService.invalidateAfterRequestChange(
+                friendRequest.getSender().getId(), friendRequest.getReceiver().getId());
     }
 }
@@ -0,0 +1,128 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.FriendsProperties;
+import com.egor.back_end.dto.user.FriendDto;
+import com.egor.back_end.dto.user.FriendSuggestionDto;
+import com.egor.back_end.repository.FriendRequestRepository;
+import com.egor.back_end.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class FriendSuggestionService {
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final UserRepository userRepository;
+    private final FriendRequestRepository friendRequestRepository;
+    private final SocialGraphIndex socialGraphIndex;
+    // Precomputed top suggestions per user ID, recomputed when the user's 2-hop neighbourhood changes
+    private final LoadingCache<Long, List<FriendSuggestionDto>> cache;
+
+    public FriendSuggestionService(UserRepository userRepository,
+                                   FriendRequestRepository friendRequestRepository,
+                                   SocialGraphIndex socialGraphIndex,
+                                   FriendsProperties friendsProperties) {
+        this.userRepository = userRepository;
+        this.friendRequestRepository = friendRequestRepository;
+        this.socialGraphIndex = socialGraphIndex;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(friendsProperties.suggestions().cacheSize())
+                .expireAfterWrite(friendsProperties.suggestions().maxStaleness())
+                .build(this::computeSuggestions);
+    }
+
+    // Top friend-of-friend suggestions, most mutual friends first
+    public List<FriendSuggestionDto> getSuggestions(Long userId, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        if (!socialGraphIndex.isLoaded()) {
+            // Graph not loaded yet (startup), let the database do the walk
+            if (!userRepository.existsById(userId)) {
+                throw new IllegalArgumentException("User not found!");
+            }
+            return userRepository.findFriendSuggestions(userId, size).stream()
+                    .map(view -> new FriendSuggestionDto(
+                            view.getId(),
+                            view.getUsername(),
+                            view.getMutualFriendsCount().intValue()
+                    ))
+                    .toList();
+        }
+
+        List<FriendSuggestionDto> suggestions = cache.get(userId);
+        return suggestions.subList(0, Math.min(size, suggestions.size()));
+    }
+
+    // A new friendship between a and b changes the suggestions of both users and of all their friends
+    public void refreshAfterFriendship(long userId, long friendId) {
+        afterCommit(() -> {
+            Set<Long> affected = new HashSet<>();
+            affected.add(userId);
+            affected.add(friendId);
+            for (long id : socialGraphIndex.friendsOf(userId)) affected.add(id);
+            for (long id : socialGraphIndex.friendsOf(friendId)) affected.add(id);
+
+            // Only users that have suggestions cached are recomputed, the rest load on their next visit
+            for (Long id : affected) {
+                if (cache.getIfPresent(id) != null) {
+                    cache.refresh(id);
+                }
+            }
+        });
+    }
+
+    // A friend request was sent, cancelled or declined between the two users
+    public void invalidateAfterRequestChange(long userId, long otherId) {
+        afterCommit(() -> cache.invalidateAll(List.of(userId, otherId)));
+    }
+
+    private List<FriendSuggestionDto> computeSuggestions(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found!");
+        }
+        return suggestFromIndex(userId, MAX_SUGGESTIONS);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private List<FriendSuggestionDto> suggestFromIndex(long userId, int size) {
+        Map<Long, Integer> mutualCounts = socialGraphIndex.mutualFriendCounts(userId);
+        if (mutualCounts.isEmpty()) return List.of();
+
+        // Users with a pending or earlier friend request are not suggested
+        friendRequestRepository.findRequestCounterpartIds(userId).forEach(mutualCounts::remove);
+
+        List<Map.Entry<Long, Integer>> top = mutualCounts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .toList();
+        if (top.isEmpty()) return List.of();
+
+        Map<Long, FriendDto> users = userRepository.findFriendDtosByIdIn(top.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(FriendDto::getId, Function.identity()));
+
+        return top.stream()
+                .filter(entry -> users.containsKey(entry.getKey()))
+                .map(entry -> new FriendSuggestionDto(entry.getKey(), users.get(entry.getKey()).getUsername(), entry.getValue()))
+                .toList();
+    }
+}
@@ -14,6 +14,9 @@ import java.time.Instant;
 
 @Service
 public class JwtService {
+    // The user ID never changes, so it identifies the user even after a rename
+    public static final String USER_ID_CLAIM = "uid";
+
     private final JwtProperties jwtProperties;
     private final JwtEncoder jwtEncoder;
 
@@ -21,7 +24,7 @@ public class JwtService {
         this.jwtProperties = jwtProperties;
         this.jwtEncoder = jwtEncoder;
     }
-    public String generateToken(String username, Role role) {
+    public String generateToken(Long userId, String username, Role role) {
         final var now = Instant.now();
         final var expiresAt = now.plus(jwtProperties.token().lifetime());
         final var header = JwsHeader.with(MacAlgorithm.HS256).build();
@@ -30,13 +33,14 @@ public class JwtService {
                 .issuedAt(now)
                 .expiresAt(expiresAt)
                 .subject(username)
+                .claim(USER_ID_CLAIM, userId)
                 .claim("scope", role.toGrantedAuthority().getAuthority())
                 .build();
         return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
     }
 
     public String generateToken(User user) {
-        return generateToken(user.getUsername(), user.getRole());
+        return generateToken(user.getId(), user.getUsername(), user.getRole());
     }
 
 }
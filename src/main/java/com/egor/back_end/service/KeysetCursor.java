@@ -0,0 +1,38 @@
+package com.egor.back_end.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+// Opaque cursor for keyset pagination: the sort key values of the last row of a page
+final class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {}
+
+    static String encode(Object... values) {
+        String raw = Arrays.stream(values)
+                .map(String::valueOf)
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, int expectedValues) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = raw.split("\\" + SEPARATOR, -1);
+            if (values.length != expectedValues) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // Clamp a requested page size to 1..maxSize
+    static int pageSize(int requested, int maxSize) {
+        return Math.max(1, Math.min(requested, maxSize));
+    }
+}
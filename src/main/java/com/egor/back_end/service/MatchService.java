@@ -1,5 +1,6 @@
 package com.egor.back_end.service;
 
+import com.egor.back_end.dto.common.CursorPageDto;
 import com.egor.back_end.dto.match.MatchCreateDto;
 import com.egor.back_end.dto.match.MatchDto;
 import com.egor.back_end.dto.match.MatchScoreDto;
@@ -7,54 +8,50 @@ import com.egor.back_end.dto.match.SubmitScoresDto;
 import com.egor.back_end.dto.user.UserDto;
 import com.egor.back_end.model.*;
 import com.egor.back_end.repository.BotRepository;
-import com.egor.back_end.repository.BotScoreRepository;
 import com.egor.back_end.repository.CompetitionRepository;
 import com.egor.back_end.repository.MatchRepository;
-import com.egor.back_end.repository.MatchScoreRepository;
 import com.egor.back_end.repository.UserRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class MatchService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final MatchRepository matchRepository;
     private final CompetitionRepository competitionRepository;
     private final UserRepository userRepository;
-    private final MatchScoreRepository matchScoreRepository;
     private final NotificationService notificationService;
     private final BotRepository botRepository;
-    private final BotScoreRepository botScoreRepository;
+    private final StandingsService standingsService;
 
     public MatchService(MatchRepository matchRepository, 
                        CompetitionRepository competitionRepository,
                        UserRepository userRepository,
-                       MatchScoreRepository matchScoreRepository,
                        NotificationService notificationService,
                        BotRepository botRepository,
-                       BotScoreRepository botScoreRepository) {
+                       StandingsService standingsService) {
         this.matchRepository = matchRepository;
         this.competitionRepository = competitionRepository;
         this.userRepository = userRepository;
-        this.matchScoreRepository = matchScoreRepository;
         this.notificationService = notificationService;
         this.botRepository = botRepository;
-        this.botScoreRepository = botScoreRepository;
+        this.standingsService = standingsService;
     }
 
     @Transactional
-    public MatchDto createMatch(MatchCreateDto dto, String creatorUsername) {
+    public MatchDto createMatch(MatchCreateDto dto, AuthenticatedUser creator) {
         Competition competition = competitionRepository.findById(dto.competitionId())
                 .orElseThrow(() -> new RuntimeException("Competition not found"));
 
-        User creator = userRepository.findByUsername(creatorUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         // Check if user is a participant of the competition
-        if (!competition.getParticipants().contains(creator)) {
+        if (!isParticipant(competition, creator)) {
             throw new RuntimeException("Only competition participants can create matches");
         }
 
@@ -101,27 +98,62 @@ public class MatchService {
         Match savedMatch = matchRepository.save(match);
         
         // Notify all participants (except creator) about new match
-        for (User participant : participants) {
-            if (!participant.getId().equals(creator.getId())) {
-                notificationService.createNotification(
-                    participant,
-                    NotificationType.MATCH_CREATED,
-                    creator.getUsername() + " created a new match: " + title + " in " + competition.getTitle(),
-                    savedMatch.getId()
-                );
-            }
-        }
+        List<User> recipients = participants.stream()
+                .filter(participant -> !participant.getId().equals(creator.id()))
+                .toList();
+        notificationService.createNotifications(
+            recipients,
+            NotificationType.MATCH_CREATED,
+            creator.username() + " created a new match: " + title + " in " + competition.getTitle(),
+            savedMatch.getId()
+        );
         
         return toDto(savedMatch);
     }
 
+    @Transactional(readOnly = true)
     public List<MatchDto> getMatchesByCompetition(Long competitionId) {
-        List<Match> matches = matchRepository.findByCompetitionId(competitionId);
+        List<Match> matches = matchRepository.findAllByCompetitionIdOrderByMatchNumberAsc(competitionId);
         return matches.stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDto<MatchDto> getMatchPage(Long competitionId, String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size, MAX_PAGE_SIZE);
+        // Fetch one extra match to know whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Match> matches;
+        if (cursor == null || cursor.isBlank()) {
+            matches = matchRepository.findPageByCompetitionId(competitionId, limit);
+        } else {
+            String[] values = KeysetCursor.decode(cursor, 2);
+            Integer matchNumber;
+            Long matchId;
+            try {
+                matchNumber = Integer.valueOf(values[0]);
+                matchId = Long.valueOf(values[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+            matches = matchRepository.findPageByCompetitionIdAfter(competitionId, matchNumber, matchId, limit);
+        }
+
+        String nextCursor = null;
+        if (matches.size() > pageSize) {
+            matches = matches.subList(0, pageSize);
+            Match last = matches.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(last.getMatchNumber(), last.getId());
+        }
+
+        List<MatchDto> items = matches.stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+        return new CursorPageDto<>(items, nextCursor);
+    }
+
     public MatchDto getMatch(Long matchId) {
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> new RuntimeException("Match not found"));
@@ -129,14 +161,11 @@ public class MatchService {
     }
 
     @Transactional
-    public MatchDto startMatch(Long matchId, String username) {
+    public MatchDto startMatch(Long matchId, AuthenticatedUser user) {
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> new RuntimeException("Match not found"));
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        if (!match.getCompetition().getCreator().getId().equals(user.getId())) {
+        if (!match.getCompetition().getCreator().getId().equals(user.id())) {
             throw new RuntimeException("Only competition creator can start matches");
         }
 
@@ -152,30 +181,29 @@ public class MatchService {
     }
 
     @Transactional
-    public void deleteMatch(Long matchId, String username) {
+    public void deleteMatch(Long matchId, AuthenticatedUser user) {
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> new RuntimeException("Match not found"));
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        if (!match.getCompetition().getCreator().getId().equals(user.getId())) {
+        if (!match.getCompetition().getCreator().getId().equals(user.id())) {
             throw new RuntimeException("Only competition creator can delete matches");
         }
 
+        // Take the result of this match out of the competition standings
+        if (match.getStatus() == MatchStatus.COMPLETED) {
+            standingsService.revertMatch(match);
+        }
+
         matchRepository.delete(match);
     }
 
     @Transactional
-    public MatchDto submitScores(SubmitScoresDto dto, String username) {
+    public MatchDto submitScores(SubmitScoresDto dto, AuthenticatedUser user) {
         Match match = matchRepository.findById(dto.matchId())
                 .orElseThrow(() -> new RuntimeException("Match not found"));
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         // Any competition participant can submit scores (including for bot-only matches)
-        if (!match.getCompetition().getParticipants().contains(user)) {
+        if (!isParticipant(match.getCompetition(), user)) {
             throw new RuntimeException("Only competition participants can submit scores");
         }
 
@@ -183,50 +211,68 @@ public class MatchService {
             throw new RuntimeException("Cannot submit scores for this match");
         }
 
-        // Clear existing scores
-        match.getScores().clear();
-        match.getBotScores().clear();
-        matchScoreRepository.flush();
-        botScoreRepository.flush();
+        // Take the previous result out of the standings before it is replaced
+        if (match.getStatus() == MatchStatus.COMPLETED) {
+            standingsService.revertMatch(match);
+        }
+
+        // Resubmission only touches what changed: existing rows are updated in place (Hibernate skips
+        // unchanged ones), new participants get a row and scores missing from the submission are removed
+        Map<Long, Bot> botsById = match.getBotParticipants().stream()
+                .collect(Collectors.toMap(Bot::getId, Function.identity()));
+        Map<Long, User> participantsById = match.getParticipants().stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, MatchScore> removedScores = match.getScores().stream()
+                .collect(Collectors.toMap(score -> score.getUser().getId(), Function.identity()));
+        Map<Long, BotScore> removedBotScores = match.getBotScores().stream()
+                .collect(Collectors.toMap(score -> score.getBot().getId(), Function.identity()));
 
-        // Add new scores (separate handling for users and bots)
         for (Map.Entry<Long, Integer> entry : dto.scores().entrySet()) {
             Long participantId = entry.getKey();
-            
+
             // Check if this is a bot (bots are in match.getBotParticipants())
-            boolean isBot = match.getBotParticipants().stream()
-                    .anyMatch(bot -> bot.getId().equals(participantId));
-            
-            if (isBot) {
-                // Save bot score
-                Bot bot = botRepository.findById(participantId)
-                        .orElseThrow(() -> new RuntimeException("Bot not found"));
-                
-                BotScore botScore = new BotScore(match, bot, entry.getValue());
+            Bot bot = botsById.get(participantId);
+            if (bot != null) {
+                BotScore botScore = removedBotScores.remove(participantId);
+                if (botScore == null) {
+                    botScore = new BotScore(match, bot, entry.getValue());
+                    match.getBotScores().add(botScore);
+                }
+                botScore.setScore(entry.getValue());
                 botScore.setConfirmed(true);
-                match.getBotScores().add(botScore);
             } else {
-                // Save user score
-                User participant = userRepository.findById(participantId)
-                        .orElseThrow(() -> new RuntimeException("User not found"));
-                
-                if (!match.getParticipants().contains(participant)) {
+                User participant = participantsById.get(participantId);
+                if (participant == null) {
                     throw new RuntimeException("User is not a participant of this match");
                 }
 
-                MatchScore score = new MatchScore(match, participant, entry.getValue());
+                MatchScore score = removedScores.remove(participantId);
+                if (score == null) {
+                    score = new MatchScore(match, participant, entry.getValue());
+                    match.getScores().add(score);
+                }
+                score.setScore(entry.getValue());
                 score.setConfirmed(true); // Auto-confirm since anyone can submit
-                match.getScores().add(score);
             }
         }
 
+        // Orphan removal deletes the rows of participants left out of this submission
+        match.getScores().removeAll(removedScores.values());
+        match.getBotScores().removeAll(removedBotScores.values());
+
         match.setScoresSubmitted(true);
         match.setStatus(MatchStatus.COMPLETED);
         Match savedMatch = matchRepository.save(match);
+        standingsService.applyMatch(savedMatch);
 
         return toDto(savedMatch);
     }
 
+    private static boolean isParticipant(Competition competition, AuthenticatedUser user) {
+        return competition.getParticipants().stream()
+                .anyMatch(participant -> participant.getId().equals(user.id()));
+    }
+
     private MatchDto toDto(Match match) {
         List<UserDto> participants = new ArrayList<>();
         
@@ -0,0 +1,7 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.dto.notification.NotificationDto;
+
+// Published when a notification is stored, delivered to open streams after the transaction commits
+public record NotificationCreatedEvent(Long userId, NotificationDto notification) {
+}
@@ -0,0 +1,217 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.NotificationProperties;
+import com.egor.back_end.dto.notification.NotificationDto;
+import com.egor.back_end.model.NotificationType;
+import com.egor.back_end.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Writes fan-out notifications (one message to many users) off the request thread in JDBC batches
+@Component
+public class NotificationDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (id, user_id, type, message, related_id, is_read, created_at) VALUES (?, ?, ?, ?, ?, false, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIdAllocator idAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCounterService unreadCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationProperties.Dispatch properties;
+    private final BlockingQueue<PendingNotification> queue;
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate,
+                                  PooledIdAllocator idAllocator,
+                                  PlatformTransactionManager transactionManager,
+                                  UnreadCounterService unreadCounterService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  NotificationProperties notificationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Batches are written from after-commit callbacks too, which must not join the finished transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.unreadCounterService = unreadCounterService;
+        this.eventPublisher = eventPublisher;
+        this.properties = notificationProperties.dispatch();
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::run, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Queue one notification per recipient, only once the calling transaction has committed
+    public void dispatch(Collection<User> recipients, NotificationType type, String message, Long relatedId) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<PendingNotification> pending = recipients.stream()
+                .map(user -> new PendingNotification(user.getId(), type, message, relatedId, createdAt))
+                .toList();
+        if (pending.isEmpty()) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending);
+                }
+            });
+        } else {
+            enqueue(pending);
+        }
+    }
+
+    private void enqueue(List<PendingNotification> pending) {
+        int queued = 0;
+        try {
+            // The first rejection means the queue is full, the caller does not wait again for every recipient
+            while (running && queued < pending.size()
+                    && queue.offer(pending.get(queued), properties.offerTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                queued++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Backpressure: when the dispatcher cannot keep up the caller pays for its own notifications
+        if (queued < pending.size()) {
+            writeInBatches(pending.subList(queued, pending.size()));
+        }
+    }
+
+    private void run() {
+        List<PendingNotification> batch = new ArrayList<>(properties.batchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingNotification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                queue.drainTo(batch, properties.batchSize() - 1);
+                writeWithFallback(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Stop accepting work and drain what is still queued before the datasource goes away
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+
+        List<PendingNotification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeInBatches(remaining);
+        }
+    }
+
+    private void writeInBatches(List<PendingNotification> notifications) {
+        for (int from = 0; from < notifications.size(); from += properties.batchSize()) {
+            writeWithFallback(notifications.subList(from, Math.min(from + properties.batchSize(), notifications.size())));
+        }
+    }
+
+    // A failed batch is retried once (transient errors), then written row by row so that one bad row,
+    // e.g. a recipient deleted in the meantime, only loses its own notification
+    private void writeWithFallback(List<PendingNotification> batch) {
+        try {
+            write(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} notifications, retrying", batch.size(), e);
+        }
+        try {
+            write(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Retry of {} notifications failed, writing them one by one", batch.size(), e);
+        }
+        for (PendingNotification notification : batch) {
+            try {
+                write(List.of(notification));
+            } catch (RuntimeException e) {
+                log.error("Dropped notification for user {}", notification.userId(), e);
+            }
+        }
+    }
+
+    private void write(List<PendingNotification> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] ids = insert(batch);
+
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (PendingNotification notification : batch) {
+                deltas.merge(notification.userId(), 1, Integer::sum);
+            }
+            unreadCounterService.adjustAll(deltas);
+
+            for (int i = 0; i < batch.size(); i++) {
+                PendingNotification notification = batch.get(i);
+                eventPublisher.publishEvent(new NotificationCreatedEvent(notification.userId(), new NotificationDto(
+                        ids[i],
+                        notification.type(),
+                        notification.message(),
+                        notification.relatedId(),
+                        false,
+                        notification.createdAt()
+                )));
+            }
+        });
+    }
+
+    private long[] insert(List<PendingNotification> batch) {
+        long[] ids = idAllocator.allocate("notifications_seq", batch.size());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingNotification notification = batch.get(i);
+                ps.setLong(1, ids[i]);
+                ps.setLong(2, notification.userId());
+                ps.setString(3, notification.type().name());
+                ps.setString(4, notification.message());
+                ps.setObject(5, notification.relatedId());
+                ps.setObject(6, notification.createdAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+        return ids;
+    }
+
+    private record PendingNotification(Long userId, NotificationType type, String message,
+                                       Long relatedId, LocalDateTime createdAt) {}
+}
@@ -0,0 +1,120 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.NotificationProperties;
+import com.egor.back_end.repository.NotificationKeyView;
+import com.egor.back_end.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Keeps the notifications table bounded. Deletes run in small chunks, each in its own short transaction,
+// so the job never holds locks on many rows at once.
+@Service
+public class NotificationRetentionService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final UnreadCounterService unreadCounterService;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationProperties.Retention properties;
+    private final Timer runTimer;
+    private final Counter expiredRemoved;
+    private final Counter overCapRemoved;
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        UnreadCounterService unreadCounterService,
+                                        PlatformTransactionManager transactionManager,
+                                        NotificationProperties notificationProperties,
+                                        MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounterService = unreadCounterService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = notificationProperties.retention();
+        this.runTimer = Timer.builder("notifications.retention.duration")
+                .description("Time taken by a notification retention run")
+                .register(meterRegistry);
+        this.expiredRemoved = Counter.builder("notifications.retention.removed")
+                .description("Notifications removed by the retention job")
+                .tag("policy", "read-max-age")
+                .register(meterRegistry);
+        this.overCapRemoved = Counter.builder("notifications.retention.removed")
+                .description("Notifications removed by the retention job")
+                .tag("policy", "max-per-user")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.retention.interval:PT1H}",
+               initialDelayString = "${notifications.retention.interval:PT1H}")
+    public void runScheduled() {
+        if (properties.enabled()) {
+            run();
+        }
+    }
+
+    public void run() {
+        long started = System.nanoTime();
+        long expired = removeExpiredRead();
+        long overCap = removeOverCap();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        runTimer.record(elapsed);
+
+        if (expired > 0 || overCap > 0) {
+            log.info("Notification retention removed {} expired read and {} over-cap notifications in {} ms",
+                    expired, overCap, elapsed.toMillis());
+        }
+    }
+
+    private long removeExpiredRead() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.readMaxAge());
+        long removed = 0;
+        int deleted;
+        do {
+            // Deleted rows drop out of the next chunk, so each chunk starts at the oldest remaining one
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = notificationRepository.findExpiredReadIds(cutoff, properties.chunkSize());
+                return ids.isEmpty() ? 0 : notificationRepository.deleteByIdIn(ids);
+            });
+            removed += deleted;
+            expiredRemoved.increment(deleted);
+        } while (deleted == properties.chunkSize());
+        return removed;
+    }
+
+    private long removeOverCap() {
+        long removed = 0;
+        for (Long userId : notificationRepository.findUserIdsOverCap(properties.maxPerUser())) {
+            Optional<NotificationKeyView> boundary = notificationRepository.findKeyAtOffset(userId, properties.maxPerUser());
+            if (boundary.isEmpty()) continue;
+
+            NotificationKeyView from = boundary.get();
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> {
+                    List<Long> ids = notificationRepository.findIdsFrom(
+                            userId, from.getCreatedAt(), from.getId(), properties.chunkSize());
+                    if (ids.isEmpty()) return 0;
+
+                    // Unread notifications beyond the cap are dropped too, keep the counter in step
+                    long unread = notificationRepository.countByIdInAndIsReadFalse(ids);
+                    int count = notificationRepository.deleteByIdIn(ids);
+                    unreadCounterService.adjust(userId, (int) -unread);
+                    return count;
+                });
+                removed += deleted;
+                overCapRemoved.increment(deleted);
+            } while (deleted == properties.chunkSize());
+        }
+        return removed;
+    }
+}
@@ -1,79 +1,137 @@
 package com.egor.back_end.service;
 
+import com.egor.back_end.dto.common.CursorPageDto;
 import com.egor.back_end.dto.notification.NotificationDto;
 import com.egor.back_end.model.*;
 import com.egor.back_end.repository.NotificationRepository;
-import com.egor.back_end.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final List<Boolean> ALL_READ_STATES = List.of(true, false);
+    private static final List<Boolean> UNREAD_ONLY = List.of(false);
+
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadCounterService unreadCounterService;
+    private final NotificationDispatcher notificationDispatcher;
 
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               UnreadCounterService unreadCounterService,
+                               NotificationDispatcher notificationDispatcher) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.unreadCounterService = unreadCounterService;
+        this.notificationDispatcher = notificationDispatcher;
     }
 
     public void createNotification(User user, NotificationType type, String message, Long relatedId) {
         Notification notification = new Notification(user, type, message, relatedId);
         notificationRepository.save(notification);
+        unreadCounterService.adjust(user, 1);
+        // Pushed to the user's open streams once the surrounding transaction commits
+        eventPublisher.publishEvent(new NotificationCreatedEvent(user.getId(), toDto(notification)));
     }
 
-    public List<NotificationDto> getUserNotifications(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user).stream()
+    // Same notification for many users, written asynchronously in batches after the caller commits
+    public void createNotifications(Collection<User> users, NotificationType type, String message, Long relatedId) {
+        notificationDispatcher.dispatch(users, type, message, relatedId);
+    }
+
+    public List<NotificationDto> getUserNotifications(Long userId) {
+        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
-    public List<NotificationDto> getUnreadNotifications(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user).stream()
+    public CursorPageDto<NotificationDto> getNotificationFeed(Long userId, String cursor, int size, boolean unreadOnly) {
+        int pageSize = KeysetCursor.pageSize(size, MAX_PAGE_SIZE);
+        // Fetch one extra notification to know whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        List<Boolean> readStates = unreadOnly ? UNREAD_ONLY : ALL_READ_STATES;
+
+        List<Notification> notifications;
+        if (cursor == null || cursor.isBlank()) {
+            notifications = notificationRepository.findFeedPage(userId, readStates, limit);
+        } else {
+            String[] values = KeysetCursor.decode(cursor, 2);
+            LocalDateTime createdAt;
+            Long notificationId;
+            try {
+                createdAt = LocalDateTime.parse(values[0]);
+                notificationId = Long.valueOf(values[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+            notifications = notificationRepository.findFeedPageAfter(userId, readStates, createdAt, notificationId, limit);
+        }
+
+        String nextCursor = null;
+        if (notifications.size() > pageSize) {
+            notifications = notifications.subList(0, pageSize);
+            Notification last = notifications.get(pageSize - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        List<NotificationDto> items = notifications.stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
+        return new CursorPageDto<>(items, nextCursor);
     }
 
-    public Integer getUnreadCount(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        return notificationRepository.countByUserAndIsReadFalse(user);
+    public List<NotificationDto> getUnreadNotifications(Long userId) {
+        return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public Integer getUnreadCount(Long userId) {
+        return unreadCounterService.getUnreadCount(userId);
     }
 
     @Transactional
-    public void markAsRead(Long notificationId, String username) {
+    public void markAsRead(Long notificationId, AuthenticatedUser user) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        if (!notification.getUser().getId().equals(user.getId())) {
+
+        if (!notification.getUser().getId().equals(user.id())) {
             throw new RuntimeException("Not authorized to mark this notification as read");
         }
         
+        if (notification.isRead()) {
+            return;
+        }
+        
         notification.setRead(true);
         notificationRepository.save(notification);
+        unreadCounterService.adjust(user.id(), -1);
+        eventPublisher.publishEvent(new UnreadCountChangedEvent(user.id()));
     }
 
+    // Marks the user's unread notifications as read, optionally only of one type and/or created up to a moment
     @Transactional
-    public void markAllAsRead(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Notification> unreadNotifications = notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
-        unreadNotifications.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(unreadNotifications);
+    public int markAllAsRead(AuthenticatedUser user, NotificationType type, LocalDateTime before) {
+        LocalDateTime cutoff = before != null ? before : LocalDateTime.now();
+        int updated = type != null
+                ? notificationRepository.markAllAsReadByType(user.id(), type, cutoff)
+                : notificationRepository.markAllAsRead(user.id(), cutoff);
+
+        if (updated > 0) {
+            unreadCounterService.adjust(user.id(), -updated);
+            eventPublisher.publishEvent(new UnreadCountChangedEvent(user.id()));
+        }
+        return updated;
     }
 
     private NotificationDto toDto(Notification notification) {
@@ -0,0 +1,94 @@
+package com.egor.back_end.service;
+
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class NotificationStreamService {
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+
+    private final UnreadCounterService unreadCounterService;
+    // One sink per user with an open stream, shared by all of that user's connections (tabs)
+    private final Map<Long, UserStream> streams = new ConcurrentHashMap<>();
+
+    public NotificationStreamService(UnreadCounterService unreadCounterService) {
+        this.unreadCounterService = unreadCounterService;
+    }
+
+    // Stream of new notifications and unread count changes, starting with the current unread count
+    public Flux<ServerSentEvent<?>> stream(Long userId) {
+        return Flux.defer(() -> {
+            UserStream stream = connect(userId);
+
+            // The count is read only once the sink is subscribed, so no change can fall in between
+            Mono<ServerSentEvent<?>> initialCount = Mono.<ServerSentEvent<?>>fromCallable(() -> unreadCountEvent(userId))
+                    .subscribeOn(Schedulers.boundedElastic());
+            Flux<ServerSentEvent<?>> heartbeat = Flux.interval(HEARTBEAT_INTERVAL)
+                    .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+
+            return Flux.merge(stream.sink.asFlux(), initialCount, heartbeat)
+                    .doFinally(signal -> disconnect(userId, stream));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        UserStream stream = streams.get(event.userId());
+        if (stream == null) return;
+
+        emit(stream.sink, ServerSentEvent.builder(event.notification()).event("notification").build());
+        emit(stream.sink, unreadCountEvent(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUnreadCountChanged(UnreadCountChangedEvent event) {
+        UserStream stream = streams.get(event.userId());
+        if (stream == null) return;
+
+        emit(stream.sink, unreadCountEvent(event.userId()));
+    }
+
+    private ServerSentEvent<?> unreadCountEvent(Long userId) {
+        Integer count = unreadCounterService.getUnreadCount(userId);
+        return ServerSentEvent.builder(count).event("unread-count").build();
+    }
+
+    private void emit(Sinks.Many<ServerSentEvent<?>> sink, ServerSentEvent<?> event) {
+        // Sinks reject concurrent emissions, events for one user can come from several request threads
+        synchronized (sink) {
+            sink.tryEmitNext(event);
+        }
+    }
+
+    // Connections are counted inside compute, so a stream being opened and the last one of the same
+    // user being closed cannot interleave: the entry is only removed when nobody holds it any more
+    private UserStream connect(Long userId) {
+        return streams.compute(userId, (id, current) -> {
+            UserStream stream = current != null ? current : new UserStream();
+            stream.connections++;
+            return stream;
+        });
+    }
+
+    private void disconnect(Long userId, UserStream stream) {
+        streams.computeIfPresent(userId, (id, current) -> {
+            if (current != stream) return current;
+            return --current.connections == 0 ? null : current;
+        });
+    }
+
+    private static class UserStream {
+        final Sinks.Many<ServerSentEvent<?>> sink = Sinks.many().multicast().directBestEffort();
+        // Only changed inside compute on the map
+        int connections;
+    }
+}
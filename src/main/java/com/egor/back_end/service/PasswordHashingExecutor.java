@@ -0,0 +1,41 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.PasswordHashingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Runs password hashing (login, signup) on a small fixed pool instead of the request threads,
+// so a burst of logins cannot occupy every Tomcat worker. When the queue is full new work is
+// rejected with RejectedExecutionException, which is answered with 503.
+@Component
+public class PasswordHashingExecutor {
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+
+    public PasswordHashingExecutor(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        int threads = properties.executor().threads() > 0
+                ? properties.executor().threads()
+                : Runtime.getRuntime().availableProcessors();
+        this.threadPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.executor().queueCapacity()),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // executor.queued, executor.active, executor.queue.remaining, ... tagged name=password.hashing
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "password.hashing");
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+}
@@ -0,0 +1,80 @@
+package com.egor.back_end.service;
+
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// IDs for rows written with plain JDBC, drawn from the same pooled sequences Hibernate uses (V18),
+// so batch inserts need no generated keys. Like Hibernate's pooled optimizer, every sequence value
+// is the upper end of a block of POOL_SIZE IDs.
+@Component
+public class PooledIdAllocator {
+    // Must match INCREMENT BY of the sequences and allocationSize on the entities
+    public static final int POOL_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValuesSql;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    public PooledIdAllocator(JdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.nextValuesSql = switch (DatabaseDriver.fromProductName(productName)) {
+            case POSTGRESQL -> "SELECT nextval('%s') FROM generate_series(1, ?)";
+            case H2 -> "SELECT NEXT VALUE FOR %s FROM SYSTEM_RANGE(1, ?)";
+            default -> throw new IllegalStateException("No sequence support for database " + productName);
+        };
+    }
+
+    // count fresh IDs from the sequence, fetching all missing blocks in one query
+    public long[] allocate(String sequence, int count) {
+        return pools.computeIfAbsent(sequence, Pool::new).allocate(count);
+    }
+
+    private class Pool {
+        private final String sequence;
+        // Not synchronized: the sequence query would pin a virtual thread to its carrier (JDK 21)
+        private final ReentrantLock lock = new ReentrantLock();
+        // Next unused ID of the current block and the block's last ID
+        private long next = 1;
+        private long last = 0;
+
+        Pool(String sequence) {
+            this.sequence = sequence;
+        }
+
+        long[] allocate(int count) {
+            lock.lock();
+            try {
+                long[] ids = new long[count];
+                int filled = 0;
+                while (filled < count && next <= last) {
+                    ids[filled++] = next++;
+                }
+                if (filled == count) return ids;
+
+                int blocks = (count - filled + POOL_SIZE - 1) / POOL_SIZE;
+                List<Long> upperBounds = jdbcTemplate.queryForList(nextValuesSql.formatted(sequence), Long.class, blocks);
+                for (long upperBound : upperBounds) {
+                    next = upperBound - POOL_SIZE + 1;
+                    last = upperBound;
+                    while (filled < count && next <= last) {
+                        ids[filled++] = next++;
+                    }
+                }
+                return ids;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
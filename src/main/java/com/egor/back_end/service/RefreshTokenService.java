@@ -0,0 +1,120 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.JwtProperties;
+import com.egor.back_end.dto.user.AuthenticationResponse;
+import com.egor.back_end.model.RefreshToken;
+import com.egor.back_end.model.User;
+import com.egor.back_end.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+// Long-lived, single-use refresh tokens: each refresh revokes the presented token and hands out a
+// new one, so access tokens can be short-lived without making clients log in (and hash) again.
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final JwtProperties jwtProperties;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtService jwtService,
+                               JwtProperties jwtProperties) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.jwtProperties = jwtProperties;
+    }
+
+    // New refresh token for the user; only its hash is stored, so this is the only time it is visible
+    @Transactional
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(jwtProperties.refreshToken().lifetime());
+        refreshTokenRepository.save(new RefreshToken(user, hash(token), expiresAt));
+        return token;
+    }
+
+    // Exchange a refresh token for a new access token and a new refresh token
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public AuthenticationResponse refresh(String token) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (stored.isExpired(now)) {
+            throw new IllegalArgumentException("Refresh token has expired");
+        }
+
+        User user = stored.getUser();
+        if (refreshTokenRepository.revoke(stored.getId(), now) == 0) {
+            LocalDateTime revokedAt = refreshTokenRepository.findRevokedAt(stored.getId()).orElse(now);
+            if (revokedAt.isAfter(now.minus(jwtProperties.refreshToken().reuseGrace()))) {
+                // Just rotated, most likely by a parallel request of the same client (two tabs, a retry)
+                throw new IllegalArgumentException("Refresh token has just been rotated");
+            }
+            // Rotated a while ago, so a copy of it is being replayed: end all sessions of this user
+            refreshTokenRepository.revokeAllForUser(user.getId(), now);
+            log.warn("Revoked refresh token reused for user {}, all refresh tokens of the user revoked", user.getId());
+            throw new IllegalArgumentException("Refresh token has been revoked");
+        }
+
+        return new AuthenticationResponse(
+                "Token refreshed.",
+                jwtService.generateToken(user),
+                issue(user),
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getRole()
+        );
+    }
+
+    // Logout: unknown or already revoked tokens are ignored
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(stored -> refreshTokenRepository.revoke(stored.getId(), LocalDateTime.now()));
+    }
+
+    @Transactional
+    public void revokeAll(User user) {
+        refreshTokenRepository.revokeAllForUser(user.getId(), LocalDateTime.now());
+    }
+
+    // Revoked tokens are kept until they expire, so reuse of a rotated token is still recognised
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.cleanup-interval:PT6H}",
+               initialDelayString = "${jwt.refresh-token.cleanup-interval:PT6H}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.egor.back_end.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory copy of user_friends: for every user a sorted array of friend IDs.
+// Arrays are never modified in place, a change swaps in a new array, so readers need no locking.
+@Component
+public class SocialGraphIndex {
+    private static final Logger log = LoggerFactory.getLogger(SocialGraphIndex.class);
+    private static final long[] NO_FRIENDS = new long[0];
+
+    private final JdbcTemplate jdbcTemplate;
+    // Locks rather than synchronized: a virtual thread blocked in synchronized stays pinned to its
+    // carrier (JDK 21), and reload holds reloadLock for the whole table read.
+    // reloadLock serialises reloads, lock guards adjacency writes and addedDuringReload.
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<Long, long[]> adjacency;
+    // Friendships added while a reload is reading the table, replayed onto the new snapshot
+    private List<long[]> addedDuringReload;
+
+    public SocialGraphIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isLoaded() {
+        return adjacency != null;
+    }
+
+    public long[] friendsOf(long userId) {
+        return adjacency.getOrDefault(userId, NO_FRIENDS);
+    }
+
+    public boolean areFriends(long userId, long otherId) {
+        return Arrays.binarySearch(friendsOf(userId), otherId) >= 0;
+    }
+
+    // Users two hops away (not the user, not already friends) with their number of mutual friends:
+    // every path user -> friend -> candidate is one mutual friend
+    public Map<Long, Integer> mutualFriendCounts(long userId) {
+        long[] friends = friendsOf(userId);
+        Map<Long, Integer> mutualCounts = new HashMap<>();
+        for (long friendId : friends) {
+            for (long candidateId : friendsOf(friendId)) {
+                if (candidateId != userId && Arrays.binarySearch(friends, candidateId) < 0) {
+                    mutualCounts.merge(candidateId, 1, Integer::sum);
+                }
+            }
+        }
+        return mutualCounts;
+    }
+
+    // Record a new friendship once the transaction that stored it has committed
+    public void addFriendshipAfterCommit(long userId, long friendId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addFriendship(userId, friendId);
+                }
+            });
+        } else {
+            addFriendship(userId, friendId);
+        }
+    }
+
+    // Before the first load has started there is nothing to update, the load will read the row itself
+    public void addFriendship(long userId, long friendId) {
+        lock.lock();
+        try {
+            if (adjacency != null) {
+                link(adjacency, userId, friendId);
+                link(adjacency, friendId, userId);
+            }
+            if (addedDuringReload != null) {
+                addedDuringReload.add(new long[]{userId, friendId});
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    // Periodic full reload picks up changes made outside this instance (other nodes, cascading deletes)
+    @Scheduled(fixedDelayString = "${friends.graph.reload-interval:PT15M}",
+               initialDelayString = "${friends.graph.reload-interval:PT15M}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            long started = System.nanoTime();
+            lock.lock();
+            try {
+                addedDuringReload = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            AdjacencyLoader loader = new AdjacencyLoader();
+            jdbcTemplate.query("SELECT user_id, friend_id FROM user_friends ORDER BY user_id, friend_id", loader);
+            Map<Long, long[]> loaded = loader.finish();
+
+            lock.lock();
+            try {
+                for (long[] edge : addedDuringReload) {
+                    link(loaded, edge[0], edge[1]);
+                    link(loaded, edge[1], edge[0]);
+                }
+                addedDuringReload = null;
+                adjacency = new ConcurrentHashMap<>(loaded);
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Loaded social graph: {} users, {} friendship rows in {} ms",
+                    loaded.size(), loader.rows, (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static void link(Map<Long, long[]> graph, long userId, long friendId) {
+        graph.compute(userId, (id, friends) -> {
+            if (friends == null) return new long[]{friendId};
+
+            int position = Arrays.binarySearch(friends, friendId);
+            if (position >= 0) return friends;
+
+            int insertAt = -position - 1;
+            long[] updated = new long[friends.length + 1];
+            System.arraycopy(friends, 0, updated, 0, insertAt);
+            updated[insertAt] = friendId;
+            System.arraycopy(friends, insertAt, updated, insertAt + 1, friends.length - insertAt);
+            return updated;
+        });
+    }
+
+    // Rows arrive ordered by (user_id, friend_id), so each user's friends are collected already sorted
+    private static class AdjacencyLoader implements RowCallbackHandler {
+        private final Map<Long, long[]> graph = new HashMap<>();
+        private long currentUser = -1;
+        private long[] buffer = new long[16];
+        private int size = 0;
+        private long rows = 0;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long userId = rs.getLong(1);
+            if (userId != currentUser) {
+                flush();
+                currentUser = userId;
+            }
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = rs.getLong(2);
+            rows++;
+        }
+
+        Map<Long, long[]> finish() {
+            flush();
+            return graph;
+        }
+
+        private void flush() {
+            if (size > 0) {
+                graph.put(currentUser, Arrays.copyOf(buffer, size));
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.model.*;
+import com.egor.back_end.repository.CompetitionStandingRepository;
+import com.egor.back_end.repository.MatchRepository;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StandingsService {
+    private final CompetitionStandingRepository standingRepository;
+    private final MatchRepository matchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIdAllocator idAllocator;
+    private final String upsertSql;
+
+    public StandingsService(CompetitionStandingRepository standingRepository,
+                            MatchRepository matchRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PooledIdAllocator idAllocator,
+                            DataSource dataSource) throws MetaDataAccessException {
+        this.standingRepository = standingRepository;
+        this.matchRepository = matchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        // Parameters: id, competition_id, participant_id, wins, draws, losses, points_scored
+        this.upsertSql = switch (DatabaseDriver.fromProductName(productName)) {
+            case POSTGRESQL -> "INSERT INTO competition_standings " +
+                    "(id, competition_id, participant_id, wins, draws, losses, matches_played, points_scored) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, 1, ?) " +
+                    "ON CONFLICT (competition_id, participant_id) DO UPDATE SET " +
+                    "wins = competition_standings.wins + EXCLUDED.wins, " +
+                    "draws = competition_standings.draws + EXCLUDED.draws, " +
+                    "losses = competition_standings.losses + EXCLUDED.losses, " +
+                    "matches_played = competition_standings.matches_played + 1, " +
+                    "points_scored = competition_standings.points_scored + EXCLUDED.points_scored";
+            case H2 -> "MERGE INTO competition_standings s " +
+                    "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+                    "CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS INTEGER))) " +
+                    "v(id, competition_id, participant_id, wins, draws, losses, points_scored) " +
+                    "ON s.competition_id = v.competition_id AND s.participant_id = v.participant_id " +
+                    "WHEN MATCHED THEN UPDATE SET " +
+                    "wins = s.wins + v.wins, draws = s.draws + v.draws, losses = s.losses + v.losses, " +
+                    "matches_played = s.matches_played + 1, points_scored = s.points_scored + v.points_scored " +
+                    "WHEN NOT MATCHED THEN INSERT " +
+                    "(id, competition_id, participant_id, wins, draws, losses, matches_played, points_scored) " +
+                    "VALUES (v.id, v.competition_id, v.participant_id, v.wins, v.draws, v.losses, 1, v.points_scored)";
+            default -> throw new IllegalStateException("No upsert support for database " + productName);
+        };
+    }
+
+    // Standings rows of a competition keyed by participant ID (negative for bots)
+    public Map<Long, CompetitionStanding> getStandings(Long competitionId) {
+        return standingRepository.findByCompetitionId(competitionId).stream()
+                .collect(Collectors.toMap(CompetitionStanding::getParticipantId, Function.identity()));
+    }
+
+    // Add the result of a completed match to the standings
+    @Transactional
+    public void applyMatch(Match match) {
+        updateStandings(match, 1);
+    }
+
+    // Remove the result of a previously completed match from the standings
+    @Transactional
+    public void revertMatch(Match match) {
+        updateStandings(match, -1);
+    }
+
+    // Recompute the standings of a competition from the raw match scores
+    @Transactional
+    public void rebuild(Long competitionId) {
+        List<CompetitionStanding> standings = matchRepository.aggregateStandings(competitionId).stream()
+                .map(stats -> {
+                    CompetitionStanding standing = new CompetitionStanding(competitionId, stats.getParticipantId());
+                    standing.setWins(stats.getWins().intValue());
+                    standing.setDraws(stats.getDraws().intValue());
+                    standing.setLosses(stats.getLosses().intValue());
+                    standing.setMatchesPlayed(stats.getMatchesPlayed().intValue());
+                    standing.setPointsScored(stats.getPointsScored().intValue());
+                    return standing;
+                })
+                .toList();
+
+        standingRepository.deleteByCompetitionId(competitionId);
+        standingRepository.saveAll(standings);
+    }
+
+    // Applying inserts the first result of a participant and adds to the existing row otherwise, in a
+    // single upsert so concurrent submissions in one competition cannot both try to create the row
+    private void updateStandings(Match match, int sign) {
+        Long competitionId = match.getCompetition().getId();
+        List<MatchResult> results = computeResults(match);
+        if (results.isEmpty()) return;
+
+        if (sign < 0) {
+            for (MatchResult result : results) {
+                standingRepository.applyDelta(
+                        competitionId,
+                        result.participantId(),
+                        -result.wins(),
+                        -result.draws(),
+                        -result.losses(),
+                        -1,
+                        -result.points()
+                );
+            }
+            return;
+        }
+
+        // The ID is only used when the row is created
+        long[] ids = idAllocator.allocate("competition_standings_seq", results.size());
+        List<Object[]> rows = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            MatchResult result = results.get(i);
+            rows.add(new Object[]{ids[i], competitionId, result.participantId(),
+                    result.wins(), result.draws(), result.losses(), result.points()});
+        }
+        jdbcTemplate.batchUpdate(upsertSql, rows);
+    }
+
+    private List<MatchResult> computeResults(Match match) {
+        // Collect all scores (users + bots, bots with negative IDs) for comparison
+        Map<Long, Integer> allScores = new HashMap<>();
+        for (MatchScore score : match.getScores()) {
+            allScores.put(score.getUser().getId(), score.getScore());
+        }
+        for (BotScore botScore : match.getBotScores()) {
+            allScores.put(-botScore.getBot().getId(), botScore.getScore());
+        }
+
+        if (allScores.isEmpty()) return List.of();
+
+        Integer highestScore = allScores.values().stream()
+                .max(Integer::compareTo)
+                .orElse(0);
+
+        // All participants with the highest score (more than one means a draw)
+        List<Long> winners = allScores.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(highestScore))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        boolean isDraw = winners.size() > 1;
+
+        List<MatchResult> results = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : allScores.entrySet()) {
+            Long participantId = entry.getKey();
+            if (isDraw) {
+                results.add(new MatchResult(participantId, 0, 1, 0, entry.getValue()));
+            } else if (winners.contains(participantId)) {
+                results.add(new MatchResult(participantId, 1, 0, 0, entry.getValue()));
+            } else {
+                results.add(new MatchResult(participantId, 0, 0, 1, entry.getValue()));
+            }
+        }
+        return results;
+    }
+
+    private record MatchResult(Long participantId, int wins, int draws, int losses, int points) {}
+}
@@ -0,0 +1,5 @@
+package com.egor.back_end.service;
+
+// Published when notifications of a user are marked as read
+public record UnreadCountChangedEvent(Long userId) {
+}
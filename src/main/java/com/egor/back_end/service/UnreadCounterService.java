@@ -0,0 +1,122 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.NotificationProperties;
+import com.egor.back_end.model.NotificationCounter;
+import com.egor.back_end.model.User;
+import com.egor.back_end.repository.NotificationCounterRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class UnreadCounterService {
+    private static final Logger log = LoggerFactory.getLogger(UnreadCounterService.class);
+
+    private final NotificationCounterRepository counterRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+    // Unread count by user ID, so polling the count needs no database access at all
+    private final Cache<Long, Integer> cache;
+
+    public UnreadCounterService(NotificationCounterRepository counterRepository,
+                                JdbcTemplate jdbcTemplate,
+                                NotificationProperties notificationProperties,
+                                DataSource dataSource) throws MetaDataAccessException {
+        this.counterRepository = counterRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        // Parameters: user_id, count of a new row, delta for an existing row
+        this.upsertSql = switch (DatabaseDriver.fromProductName(productName)) {
+            case POSTGRESQL -> "INSERT INTO notification_counters (user_id, unread_count) VALUES (?, ?) " +
+                    "ON CONFLICT (user_id) DO UPDATE SET unread_count = notification_counters.unread_count + ?";
+            case H2 -> "MERGE INTO notification_counters c " +
+                    "USING (VALUES (CAST(? AS BIGINT), CAST(? AS INTEGER), CAST(? AS INTEGER))) " +
+                    "v(user_id, initial_count, delta) ON c.user_id = v.user_id " +
+                    "WHEN MATCHED THEN UPDATE SET unread_count = c.unread_count + v.delta " +
+                    "WHEN NOT MATCHED THEN INSERT (user_id, unread_count) VALUES (v.user_id, v.initial_count)";
+            default -> throw new IllegalStateException("No upsert support for database " + productName);
+        };
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(notificationProperties.counters().cacheSize())
+                .expireAfterWrite(notificationProperties.counters().cacheTtl())
+                .build();
+    }
+
+    public Integer getUnreadCount(Long userId) {
+        // No row: the user has never received a notification
+        return cache.get(userId, id -> counterRepository.findById(id)
+                .map(NotificationCounter::getUnreadCount)
+                .orElse(0));
+    }
+
+    // Adjust the stored counter, the cached value is dropped once the change is committed.
+    // Users created after the V14 backfill have no row until their first change, so this is an upsert:
+    // two concurrent first changes cannot both try to insert it.
+    @Transactional
+    public void adjust(User user, int delta) {
+        adjust(user.getId(), delta);
+    }
+
+    @Transactional
+    public void adjust(Long userId, int delta) {
+        if (delta == 0) return;
+
+        jdbcTemplate.update(upsertSql, userId, Math.max(delta, 0), delta);
+        evictAfterCommit(userId);
+    }
+
+    // Adjust the counters of many users at once with JDBC batches (notification fan-out)
+    @Transactional
+    public void adjustAll(Map<Long, Integer> deltasByUserId) {
+        if (deltasByUserId.isEmpty()) return;
+
+        List<Map.Entry<Long, Integer>> deltas = List.copyOf(deltasByUserId.entrySet());
+        jdbcTemplate.batchUpdate(upsertSql, deltas, deltas.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setInt(2, Math.max(entry.getValue(), 0));
+            ps.setInt(3, entry.getValue());
+        });
+        deltasByUserId.keySet().forEach(this::evictAfterCommit);
+    }
+
+    // Correct any drift between the counters and the notifications table
+    @Scheduled(fixedDelayString = "${notifications.counters.reconcile-interval:PT10M}",
+               initialDelayString = "${notifications.counters.reconcile-interval:PT10M}")
+    @Transactional
+    public void reconcile() {
+        int created = counterRepository.insertMissingCounters();
+        int corrected = counterRepository.correctDriftedCounters();
+        if (created > 0 || corrected > 0) {
+            log.info("Reconciled unread notification counters: {} created, {} corrected", created, corrected);
+            cache.invalidateAll();
+        }
+    }
+
+    private void evictAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+}
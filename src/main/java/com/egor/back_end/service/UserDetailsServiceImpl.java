@@ -1,14 +1,16 @@
 package com.egor.back_end.service;
 
+import com.egor.back_end.model.User;
 import com.egor.back_end.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     public UserDetailsServiceImpl(UserRepository userRepository) {
@@ -19,4 +21,15 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return new UserDetailsImpl(userRepository.findByUsername(username.toLowerCase()).orElseThrow(() -> new UsernameNotFoundException(username)));
     }
+
+    // Called after a successful login whose stored hash uses an outdated algorithm or strength
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((UserDetailsImpl) userDetails).getUser();
+        userRepository.updatePassword(user.getId(), user.getPassword(), newPassword);
+        // The user was loaded before the password check and is detached, it is not saved back
+        user.setPassword(newPassword);
+        return new UserDetailsImpl(user);
+    }
 }
@@ -1,5 +1,6 @@
 package com.egor.back_end.service;
 
+import com.egor.back_end.dto.common.CursorPageDto;
 import com.egor.back_end.dto.user.*;
 import com.egor.back_end.exceptions.SignupException;
 import com.egor.back_end.model.Role;
@@ -7,35 +8,75 @@ import com.egor.back_end.model.User;
 import com.egor.back_end.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    private static final int SEARCH_LIMIT = 5;
+    private static final int MAX_PAGE_SIZE = 100;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final SocialGraphIndex socialGraphIndex;
+    private final UsernamePrefixIndex usernamePrefixIndex;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+    private final RefreshTokenService refreshTokenService;
 
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        AuthenticationManager authenticationManager,
-                       JwtService jwtService) {
+                       JwtService jwtService,
+                       SocialGraphIndex socialGraphIndex,
+                       UsernamePrefixIndex usernamePrefixIndex,
+                       AuthenticatedUserResolver authenticatedUserResolver,
+                       RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.socialGraphIndex = socialGraphIndex;
+        this.usernamePrefixIndex = usernamePrefixIndex;
+        this.authenticatedUserResolver = authenticatedUserResolver;
+        this.refreshTokenService = refreshTokenService;
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public CursorPageDto<UserSummaryDto> getUserPage(String cursor, int size) {
+        int pageSize = KeysetCursor.pageSize(size, MAX_PAGE_SIZE);
+        // Fetch one extra user to know whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<UserSummaryDto> users;
+        if (cursor == null || cursor.isBlank()) {
+            users = userRepository.findSummaryPage(limit);
+        } else {
+            String[] values = KeysetCursor.decode(cursor, 1);
+            Long userId;
+            try {
+                userId = Long.valueOf(values[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+            users = userRepository.findSummaryPageAfter(userId, limit);
+        }
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = KeysetCursor.encode(users.get(pageSize - 1).id());
+        }
+        return new CursorPageDto<>(users, nextCursor);
     }
 
     public AuthenticationResponse authenticate(String username, String password) {
@@ -46,6 +87,7 @@ public class UserService {
         return new AuthenticationResponse(
                 "Authentication successful.",
                 token,
+                refreshTokenService.issue(user),
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
@@ -64,16 +106,29 @@ public class UserService {
                 passwordEncoder.encode(userCreateDto.password()),
                 Role.USER
         );
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        usernamePrefixIndex.putAfterCommit(savedUser.getId(), savedUser.getUsername(), savedUser.getEmail(), savedUser.getRole());
+        return savedUser;
     }
 
     public List<FriendDto> getFriendsList(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        if (!socialGraphIndex.isLoaded()) {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+            return user.getFriends().stream()
+                    .map(friend -> new FriendDto(friend.getId(), friend.getUsername()))
+                    .collect(Collectors.toList());
+        }
 
-        return user.getFriends().stream()
-                .map(friend -> new FriendDto(friend.getId(), friend.getUsername()))
-                .collect(Collectors.toList());
+        long[] friendIds = socialGraphIndex.friendsOf(userId);
+        if (friendIds.length == 0) {
+            if (!userRepository.existsById(userId)) {
+                throw new IllegalArgumentException("User not found");
+            }
+            return List.of();
+        }
+        return userRepository.findFriendDtosByIdIn(Arrays.stream(friendIds).boxed().toList());
     }
 
     public UserProfileDto getUserProfile(Long userId) {
@@ -95,17 +150,29 @@ public class UserService {
         return "https://api.dicebear.com/7.x/pixel-art/svg?seed=" + username;
     }
 
+    // Type-ahead search: usernames starting with the term first, then those containing it
     public List<UserDto> searchUserByUsername(String username) {
-        List<User> users = userRepository.findByUsernameContainingIgnoreCase(username);
-        
+        String lowercase = username.toLowerCase();
+        String term = escapeLike(lowercase);
+        String prefix = term + "%";
+
+        // Prefix matches come from memory, the database is only asked for usernames containing the term
+        List<UserDto> users = new ArrayList<>(usernamePrefixIndex.isLoaded()
+                ? usernamePrefixIndex.searchPrefix(lowercase, SEARCH_LIMIT)
+                : userRepository.searchByUsernamePrefix(prefix, Limit.of(SEARCH_LIMIT)));
+        if (users.size() < SEARCH_LIMIT) {
+            users.addAll(userRepository.searchByUsernameContaining(
+                    "%" + term + "%", prefix, Limit.of(SEARCH_LIMIT - users.size())));
+        }
+
         if (users.isEmpty()) {
             throw new IllegalArgumentException("No users found");
         }
-        
-        return users.stream()
-                .map(user -> new UserDto(user.getId(), user.getUsername(), user.getEmail(), user.getRole()))
-                .limit(5) // Limit to 5 results
-                .collect(Collectors.toList());
+        return users;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     @Transactional
@@ -130,15 +197,21 @@ public class UserService {
                 throw new IllegalArgumentException("Invalid current password");
             }
             user.setPassword(passwordEncoder.encode(dto.getNewPassword()));
+            // Sessions started with the old password must log in again
+            refreshTokenService.revokeAll(user);
         }
 
         User savedUser = userRepository.save(user);
 
         if (usernameChanged) {
+            // Cached per-username state must not be served to whoever takes the old name
+            authenticatedUserResolver.evictAfterCommit(currentUsername);
+            usernamePrefixIndex.putAfterCommit(savedUser.getId(), savedUser.getUsername(), savedUser.getEmail(), savedUser.getRole());
             final var token = jwtService.generateToken(savedUser);
             return new AuthenticationResponse(
                     "Profile updated. New token issued.",
                     token,
+                    null,
                     savedUser.getId(),
                     savedUser.getUsername(),
                     savedUser.getEmail(),
@@ -146,6 +219,6 @@ public class UserService {
             );
         }
 
-        return new AuthenticationResponse("Profile updated successfully.", null, savedUser.getId(), savedUser.getUsername(), savedUser.getEmail(), savedUser.getRole());
+        return new AuthenticationResponse("Profile updated successfully.", null, null, savedUser.getId(), savedUser.getUsername(), savedUser.getEmail(), savedUser.getRole());
     }
 }
@@ -0,0 +1,275 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.dto.user.UserDto;
+import com.egor.back_end.model.Role;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory autocomplete over all usernames: parallel arrays sorted by username, so a prefix
+// lookup is one binary search followed by a scan. Signups and renames go into a small sorted
+// overlay (log-time insert) that is merged into the arrays once it holds COMPACT_THRESHOLD users.
+// Only what the search returns is kept: ID, username, email and role.
+@Component
+public class UsernamePrefixIndex implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(UsernamePrefixIndex.class);
+    private static final Role[] ROLES = Role.values();
+    private static final int COMPACT_THRESHOLD = 4096;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Locks rather than synchronized, see SocialGraphIndex. reloadLock serialises reloads,
+    // lock guards snapshot writes and changedDuringReload.
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    // Changes made while a reload is reading the table, replayed onto the new snapshot
+    private List<Entry> changedDuringReload;
+
+    public UsernamePrefixIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.search.index.size", this, index -> index.isLoaded() ? index.snapshot.size() : 0)
+                .description("Usernames held by the in-memory search index")
+                .register(registry);
+        Gauge.builder("users.search.index.memory", this, UsernamePrefixIndex::estimatedMemoryBytes)
+                .description("Estimated heap used by the in-memory search index")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    // Users whose (lowercase) username starts with the prefix, in username order
+    public List<UserDto> searchPrefix(String prefix, int limit) {
+        Snapshot current = snapshot;
+        List<UserDto> results = new ArrayList<>(limit);
+        int i = current.lowerBound(prefix);
+        Iterator<Entry> overlay = current.added.tailMap(prefix).values().iterator();
+        Entry pending = overlay.hasNext() ? overlay.next() : null;
+
+        // Merge the arrays (skipping users that were moved to the overlay) with the overlay
+        while (results.size() < limit) {
+            while (i < current.ids.length && current.moved.contains(current.ids[i])) i++;
+            boolean fromArrays = i < current.ids.length && current.usernames[i].startsWith(prefix);
+            boolean fromOverlay = pending != null && pending.username().startsWith(prefix);
+            if (!fromArrays && !fromOverlay) break;
+
+            if (fromArrays && (!fromOverlay || current.usernames[i].compareTo(pending.username()) < 0)) {
+                results.add(new UserDto(current.ids[i], current.usernames[i], current.emails[i], ROLES[current.roles[i]]));
+                i++;
+            } else {
+                results.add(new UserDto(pending.id(), pending.username(), pending.email(), ROLES[pending.role()]));
+                pending = overlay.hasNext() ? overlay.next() : null;
+            }
+        }
+        return results;
+    }
+
+    // Add a new user, or move an existing one to a new username, once the transaction has committed
+    public void putAfterCommit(long id, String username, String email, Role role) {
+        Entry entry = new Entry(id, username, email, (byte) role.ordinal());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(entry);
+                }
+            });
+        } else {
+            put(entry);
+        }
+    }
+
+    // Before the first load has started there is nothing to update, the load will read the row itself
+    private void put(Entry entry) {
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                snapshot.add(entry);
+                if (snapshot.added.size() >= COMPACT_THRESHOLD) {
+                    snapshot = snapshot.compact();
+                }
+            }
+            if (changedDuringReload != null) {
+                changedDuringReload.add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    // Periodic full reload picks up users created or renamed by other instances
+    @Scheduled(fixedDelayString = "${users.search-index.reload-interval:PT15M}",
+               initialDelayString = "${users.search-index.reload-interval:PT15M}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            long started = System.nanoTime();
+            lock.lock();
+            try {
+                changedDuringReload = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            List<Entry> entries = jdbcTemplate.query("SELECT id, username, email, role FROM users",
+                    (rs, rowNum) -> new Entry(
+                            rs.getLong("id"),
+                            rs.getString("username"),
+                            rs.getString("email"),
+                            (byte) Role.valueOf(rs.getString("role")).ordinal()));
+            // Sorted in Java: the database collation need not match String.compareTo
+            entries.sort(Comparator.comparing(Entry::username));
+            Snapshot loaded = Snapshot.of(entries);
+
+            lock.lock();
+            try {
+                // All replayed changes are merged into the arrays in one pass
+                changedDuringReload.forEach(loaded::add);
+                changedDuringReload = null;
+                snapshot = loaded.added.isEmpty() ? loaded : loaded.compact();
+            } finally {
+                lock.unlock();
+            }
+            log.info("Loaded username search index: {} users, ~{} KiB in {} ms",
+                    snapshot.size(), estimatedMemoryBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Rough heap estimate (compressed oops, compact Latin-1 strings, ~64 bytes per overlay user)
+    public long estimatedMemoryBytes() {
+        Snapshot current = snapshot;
+        if (current == null) return 0;
+
+        int length = current.ids.length;
+        long bytes = 2 * align(16 + 4L * length) + align(16 + 8L * length) + align(16 + length);
+        for (int i = 0; i < length; i++) {
+            bytes += stringBytes(current.usernames[i]) + stringBytes(current.emails[i]);
+        }
+        for (Entry entry : current.added.values()) {
+            bytes += 64 + stringBytes(entry.username()) + stringBytes(entry.email());
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private record Entry(long id, String username, String email, byte role) {}
+
+    // Arrays are never modified. The overlay maps are only changed under the index's lock and are safe
+    // to read concurrently; a rename can briefly show neither or both usernames of that user.
+    private record Snapshot(String[] usernames, long[] ids, String[] emails, byte[] roles,
+                            // Users added or renamed since the arrays were built, by username and by ID
+                            ConcurrentSkipListMap<String, Entry> added,
+                            Map<Long, String> addedUsernames,
+                            // IDs whose array position is out of date
+                            Set<Long> moved) {
+        static Snapshot of(List<Entry> sorted) {
+            int size = sorted.size();
+            String[] usernames = new String[size];
+            long[] ids = new long[size];
+            String[] emails = new String[size];
+            byte[] roles = new byte[size];
+            for (int i = 0; i < size; i++) {
+                Entry entry = sorted.get(i);
+                usernames[i] = entry.username();
+                ids[i] = entry.id();
+                emails[i] = entry.email();
+                roles[i] = entry.role();
+            }
+            return new Snapshot(usernames, ids, emails, roles,
+                    new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>(), ConcurrentHashMap.newKeySet());
+        }
+
+        // Users currently in the index (arrays minus moved entries, plus the overlay)
+        int size() {
+            int inArrays = ids.length;
+            if (!moved.isEmpty()) {
+                for (long id : ids) {
+                    if (moved.contains(id)) inArrays--;
+                }
+            }
+            return inArrays + added.size();
+        }
+
+        // First array position whose username is >= the given value
+        int lowerBound(String value) {
+            int low = 0, high = usernames.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (usernames[mid].compareTo(value) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void add(Entry entry) {
+            String previous = addedUsernames.put(entry.id(), entry.username());
+            if (previous != null && !previous.equals(entry.username())) {
+                added.remove(previous);
+            }
+            added.put(entry.username(), entry);
+            moved.add(entry.id());
+        }
+
+        // New arrays with the overlay merged in, in one pass over both sorted sequences
+        Snapshot compact() {
+            List<Entry> merged = new ArrayList<>(ids.length + added.size());
+            Iterator<Entry> overlay = added.values().iterator();
+            Entry pending = overlay.hasNext() ? overlay.next() : null;
+            for (int i = 0; i < ids.length; i++) {
+                if (moved.contains(ids[i])) continue;
+                while (pending != null && pending.username().compareTo(usernames[i]) < 0) {
+                    merged.add(pending);
+                    pending = overlay.hasNext() ? overlay.next() : null;
+                }
+                merged.add(new Entry(ids[i], usernames[i], emails[i], roles[i]));
+            }
+            while (pending != null) {
+                merged.add(pending);
+                pending = overlay.hasNext() ? overlay.next() : null;
+            }
+            return of(merged);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+-- Create competition_standings table
+-- Holds the per-participant leaderboard of a competition, maintained as deltas when scores change.
+-- participant_id follows the API convention: positive for users, negative (-bot_id) for bots.
+-- Compatible with both H2 and PostgreSQL
+CREATE TABLE competition_standings (
+    id BIGSERIAL PRIMARY KEY,
+    competition_id BIGINT NOT NULL,
+    participant_id BIGINT NOT NULL,
+    wins INTEGER NOT NULL DEFAULT 0,
+    draws INTEGER NOT NULL DEFAULT 0,
+    losses INTEGER NOT NULL DEFAULT 0,
+    matches_played INTEGER NOT NULL DEFAULT 0,
+    points_scored INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT fk_standings_competition FOREIGN KEY (competition_id) REFERENCES competitions(id) ON DELETE CASCADE,
+    CONSTRAINT uk_standings_competition_participant UNIQUE (competition_id, participant_id)
+);
+
+-- Backfill standings from the scores of already completed matches
+INSERT INTO competition_standings (competition_id, participant_id, wins, draws, losses, matches_played, points_scored)
+SELECT competition_id,
+       participant_id,
+       SUM(CASE WHEN top_count = 1 AND score = top_score THEN 1 ELSE 0 END),
+       SUM(CASE WHEN top_count > 1 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN top_count = 1 AND score <> top_score THEN 1 ELSE 0 END),
+       COUNT(*),
+       COALESCE(SUM(score), 0)
+FROM (
+    SELECT competition_id, participant_id, score, top_score,
+           SUM(CASE WHEN score = top_score THEN 1 ELSE 0 END) OVER (PARTITION BY match_id) AS top_count
+    FROM (
+        SELECT m.competition_id, s.match_id, s.participant_id, s.score,
+               MAX(s.score) OVER (PARTITION BY s.match_id) AS top_score
+        FROM (
+            SELECT match_id, user_id AS participant_id, score FROM match_scores
+            UNION ALL
+            SELECT match_id, -bot_id AS participant_id, score FROM bot_scores
+        ) s
+        JOIN matches m ON m.id = s.match_id
+        WHERE m.status = 'COMPLETED'
+    ) scored
+) ranked
+GROUP BY competition_id, participant_id;
@@ -0,0 +1,3 @@
+-- Composite index backing keyset pagination of a competition's matches
+-- Compatible with both H2 and PostgreSQL
+CREATE INDEX idx_matches_competition_number ON matches(competition_id, match_number, id);
@@ -0,0 +1,3 @@
+-- Composite index backing the keyset-paginated notification feed (newest first per user)
+-- Compatible with both H2 and PostgreSQL
+CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_at DESC, id DESC);
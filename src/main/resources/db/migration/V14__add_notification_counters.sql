@@ -0,0 +1,13 @@
+-- Create notification_counters table
+-- Per-user unread notification count, maintained on write so polling the count is a primary key read
+-- Compatible with both H2 and PostgreSQL
+CREATE TABLE notification_counters (
+    user_id BIGINT PRIMARY KEY,
+    unread_count INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT fk_notification_counter_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Initialize counters from the existing notifications
+INSERT INTO notification_counters (user_id, unread_count)
+SELECT u.id, (SELECT COUNT(*) FROM notifications n WHERE n.user_id = u.id AND n.is_read = false)
+FROM users u;
@@ -0,0 +1,5 @@
+-- The retention job walks read notifications oldest first; unread ones are never scanned.
+-- Replaces the global created_at index, which no query uses since the per-user feed index (V13).
+-- Compatible with both H2 and PostgreSQL
+DROP INDEX IF EXISTS idx_notifications_created_at;
+CREATE INDEX idx_notifications_read_created ON notifications(is_read, created_at, id);
@@ -0,0 +1,4 @@
+-- Lets the friend suggestion anti-join look up requests received from a candidate;
+-- the other direction is already covered by the unique (sender_id, receiver_id) constraint
+-- Compatible with both H2 and PostgreSQL
+CREATE INDEX idx_friend_requests_receiver_sender ON friend_requests(receiver_id, sender_id);
@@ -0,0 +1,20 @@
+-- Create refresh_tokens table
+-- Only the SHA-256 hash of a refresh token is stored; a token is revoked when it is rotated or on logout
+-- Compatible with both H2 and PostgreSQL
+CREATE TABLE refresh_tokens (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_refresh_token_hash UNIQUE (token_hash)
+);
+
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens(user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
+
+-- Pooled IDs, like the other entity tables (see V18): a sequence value is the upper end of a block
+-- of 50 IDs, so it starts 50 above MAX(id), which for this new table is 0
+CREATE SEQUENCE refresh_tokens_seq START WITH 50 INCREMENT BY 50;
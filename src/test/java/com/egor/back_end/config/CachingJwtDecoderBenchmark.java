@@ -0,0 +1,60 @@
+package com.egor.back_end.config;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding the same valid access token with the plain Nimbus decoder and through CachingJwtDecoder.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) org.openjdk.jmh.Main CachingJwtDecoderBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingJwtDecoderBenchmark {
+    private JwtDecoder nimbus;
+    private JwtDecoder cached;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        SecretKey key = KeyGenerator.getInstance("HmacSHA256").generateKey();
+        nimbus = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+        cached = new CachingJwtDecoder(nimbus, 10_000, new SimpleMeterRegistry());
+
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("komp_app")
+                .subject("alice")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .claim("scope", "ROLE_USER")
+                .claim("uid", 1L)
+                .build();
+        token = new NimbusJwtEncoder(new ImmutableSecret<>(key))
+                .encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt nimbus() {
+        return nimbus.decode(token);
+    }
+
+    @Benchmark
+    public Jwt cached() {
+        return cached.decode(token);
+    }
+}
@@ -0,0 +1,134 @@
+package com.egor.back_end.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingJwtDecoderTest {
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final FakeTime time = new FakeTime();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+
+    @Test
+    void validTokenIsDecodedOnce() {
+        CachingJwtDecoder decoder = decoder(token -> jwt(token, START.plusSeconds(900)));
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+
+        assertThat(second).isSameAs(first);
+        assertThat(delegateCalls).hasValue(1);
+    }
+
+    @Test
+    void invalidTokenIsNotCached() {
+        CachingJwtDecoder decoder = decoder(token -> {
+            throw new BadJwtException("bad signature");
+        });
+
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        // Every attempt is verified again
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+    @Test
+    void entryExpiresWithTheToken() {
+        CachingJwtDecoder decoder = decoder(token -> jwt(token, START.plusSeconds(60)));
+
+        decoder.decode("token-a");
+        time.advance(Duration.ofSeconds(59));
+        decoder.decode("token-a");
+        assertThat(delegateCalls).hasValue(1);
+
+        // Past exp the cached result is gone and the delegate (which rejects expired tokens) decides
+        time.advance(Duration.ofSeconds(2));
+        decoder.decode("token-a");
+        assertThat(delegateCalls).hasValue(2);
+    }
+
+    @Test
+    void hitsAndMissesAreRecorded() {
+        CachingJwtDecoder decoder = decoder(token -> jwt(token, START.plusSeconds(900)));
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        assertThat(gets("hit")).isEqualTo(2);
+        assertThat(gets("miss")).isEqualTo(2);
+    }
+
+    private CachingJwtDecoder decoder(JwtDecoder delegate) {
+        JwtDecoder counting = token -> {
+            delegateCalls.incrementAndGet();
+            return delegate.decode(token);
+        };
+        return new CachingJwtDecoder(counting, 100, meterRegistry, time, time.clock());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "jwt.decoder").tag("result", result)
+                .functionCounter().count();
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("alice")
+                .issuedAt(START)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    // One time source for the cache's ticker and the clock that is compared with exp
+    private static class FakeTime implements Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        Clock clock() {
+            return new Clock() {
+                @Override
+                public ZoneId getZone() {
+                    return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(ZoneId zone) {
+                    return this;
+                }
+
+                @Override
+                public Instant instant() {
+                    return START.plusNanos(nanos.get());
+                }
+            };
+        }
+    }
+}
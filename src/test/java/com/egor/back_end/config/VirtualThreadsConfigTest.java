@@ -0,0 +1,40 @@
+package com.egor.back_end.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+class VirtualThreadsConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private HikariDataSource hikariDataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void limiterWrapsHikariWithoutHidingIt() {
+        assertThat(dataSource).isInstanceOf(ConcurrencyLimitingDataSource.class);
+        assertThat(jdbcTemplate.getDataSource()).isSameAs(dataSource);
+        assertThat(hikariDataSource.getMaximumPoolSize()).isEqualTo(4);
+
+        assertThat(meterRegistry.find("hikaricp.connections.max").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.max").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.find("db.limiter.waiting").gauge()).isNotNull();
+    }
+}
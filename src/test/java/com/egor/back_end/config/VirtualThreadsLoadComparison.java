@@ -0,0 +1,146 @@
+package com.egor.back_end.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop load against a running instance, to compare spring.threads.virtual.enabled=true and
+ * false: `concurrency` clients each send the next request as soon as the previous one is answered,
+ * cycling through a few database-backed reads, and throughput and latency percentiles are printed.
+ * Start the application once per mode (VIRTUAL_THREADS=true / false) with the same database, then
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.egor.back_end.config.VirtualThreadsLoadComparison [baseUrl] [concurrency] [seconds] [username] [password]
+ * </pre>
+ */
+public class VirtualThreadsLoadComparison {
+    private static final List<String> PATHS = List.of(
+            "/notifications/feed?size=20",
+            "/notifications/unread/count",
+            "/users?size=50",
+            "/competitions/user/1");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String username = args.length > 3 ? args[3] : "admin";
+        String password = args.length > 4 ? args[4] : "admin123";
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = login(client, baseUrl, username, password);
+
+        // Warm-up at the same concurrency, then the measured run
+        run(client, baseUrl, token, concurrency, Math.max(5, seconds / 3));
+        Result result = run(client, baseUrl, token, concurrency, seconds);
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("%d clients, %d s: %d requests, %.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, statuses %s%n",
+                concurrency, seconds, latencies.length, latencies.length / (double) seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                result.statuses());
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        String body = new ObjectMapper().writeValueAsString(Map.of("username", username, "password", password));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return new ObjectMapper().readTree(response.body()).get("token").asText();
+    }
+
+    private static Result run(HttpClient client, String baseUrl, String token, int concurrency, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<Result>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int offset = c;
+                clients.add(executor.submit(() -> {
+                    Result result = new Result();
+                    for (int i = offset; System.nanoTime() < deadline; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PATHS.get(i % PATHS.size())))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long started = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        result.add(status, System.nanoTime() - started);
+                    }
+                    return result;
+                }));
+            }
+        }
+
+        Result total = new Result();
+        for (Future<Result> future : clients) {
+            total.addAll(future.get());
+        }
+        return total;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    // Latencies in nanoseconds and a count per HTTP status (-1 = I/O error or timeout)
+    private static class Result {
+        private long[] latencies = new long[1024];
+        private int size;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+        void add(int status, long latency) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+            statuses.merge(status, 1, Integer::sum);
+        }
+
+        void addAll(Result other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, size + other.size);
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            other.statuses.forEach((status, count) -> statuses.merge(status, count, Integer::sum));
+        }
+
+        long[] latencies() {
+            return Arrays.copyOf(latencies, size);
+        }
+
+        Map<Integer, Integer> statuses() {
+            return statuses;
+        }
+    }
+}
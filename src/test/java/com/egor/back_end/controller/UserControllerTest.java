@@ -0,0 +1,60 @@
+package com.egor.back_end.controller;
+
+import com.egor.back_end.config.PasswordHashingProperties;
+import com.egor.back_end.exceptions.GlobalExceptionHandler;
+import com.egor.back_end.service.PasswordHashingExecutor;
+import com.egor.back_end.service.RefreshTokenService;
+import com.egor.back_end.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(
+            new PasswordHashingProperties("bcrypt", 4, new PasswordHashingProperties.Executor(1, 1)),
+            new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void loginIsRejectedWith503WhenHashingQueueIsFull() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new UserController(mock(UserService.class), executor, mock(RefreshTokenService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        // One task occupies the only thread, the second fills the queue
+        executor.submit(this::awaitRelease);
+        executor.submit(this::awaitRelease);
+
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"password\":\"secret\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    private Void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
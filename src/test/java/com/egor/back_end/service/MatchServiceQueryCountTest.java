@@ -0,0 +1,193 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.NotificationConfig;
+import com.egor.back_end.dto.match.MatchDto;
+import com.egor.back_end.dto.match.SubmitScoresDto;
+import com.egor.back_end.model.*;
+import com.egor.back_end.repository.BotRepository;
+import com.egor.back_end.repository.CompetitionRepository;
+import com.egor.back_end.repository.MatchRepository;
+import com.egor.back_end.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.egor.back_end.service.MatchServiceQueryCountTest$ScoreInsertCounter"
+})
+@Import({MatchService.class, NotificationService.class, StandingsService.class, UnreadCounterService.class,
+        NotificationDispatcher.class, PooledIdAllocator.class, NotificationConfig.class})
+class MatchServiceQueryCountTest {
+
+    @Autowired
+    private MatchService matchService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CompetitionRepository competitionRepository;
+    @Autowired
+    private MatchRepository matchRepository;
+    @Autowired
+    private BotRepository botRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingMatchesUsesBoundedNumberOfQueries() {
+        Long smallCompetition = createCompetitionWithMatches("small", 3);
+        Long largeCompetition = createCompetitionWithMatches("large", 30);
+
+        long smallQueries = countStatements(smallCompetition, 3);
+        long largeQueries = countStatements(largeCompetition, 30);
+
+        assertThat(largeQueries).isEqualTo(smallQueries);
+        assertThat(largeQueries).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void submittedScoresAreInsertedInOneBatch() {
+        Map<Long, Integer> scores = new HashMap<>();
+        Long matchId = createMatchWithPlayers("batch", 20, scores);
+
+        entityManager.flush();
+        entityManager.clear();
+        ScoreInsertCounter.count.set(0);
+
+        MatchDto result = matchService.submitScores(new SubmitScoresDto(matchId, scores), creator("batch"));
+        entityManager.flush();
+
+        assertThat(result.scores()).hasSize(20);
+        // 20 rows, but the insert statement is prepared once and sent as a single JDBC batch
+        assertThat(ScoreInsertCounter.count.get()).isEqualTo(1);
+    }
+
+    @Test
+    void resubmittingScoresOnlyWritesChangedRows() {
+        Map<Long, Integer> scores = new HashMap<>();
+        Long matchId = createMatchWithPlayers("resubmit", 20, scores);
+        matchService.submitScores(new SubmitScoresDto(matchId, scores), creator("resubmit"));
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Long changed = scores.keySet().iterator().next();
+        scores.put(changed, 100);
+        MatchDto result = matchService.submitScores(new SubmitScoresDto(matchId, scores), creator("resubmit"));
+        entityManager.flush();
+
+        assertThat(result.scores()).hasSize(20);
+        assertThat(result.scores()).anySatisfy(score -> {
+            assertThat(score.userId()).isEqualTo(changed);
+            assertThat(score.score()).isEqualTo(100);
+        });
+        // Only the changed score (and the match itself) is updated, nothing is deleted and re-inserted
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isLessThanOrEqualTo(2);
+    }
+
+    // An in-progress match between the given number of players, scores filled with one value per player
+    private Long createMatchWithPlayers(String prefix, int playerCount, Map<Long, Integer> scores) {
+        User creator = userRepository.save(new User(prefix + "_creator", "password", Role.USER));
+        Set<User> players = new HashSet<>(Set.of(creator));
+        for (int i = 1; i < playerCount; i++) {
+            players.add(userRepository.save(new User(prefix + "_player" + i, "password", Role.USER)));
+        }
+
+        Competition competition = new Competition(prefix, "x", creator);
+        competition.setParticipants(players);
+        competition = competitionRepository.save(competition);
+
+        Match match = new Match("Match 1", competition, 1);
+        match.setParticipants(players);
+        match.setStatus(MatchStatus.IN_PROGRESS);
+        Long matchId = matchRepository.save(match).getId();
+
+        players.forEach(player -> scores.put(player.getId(), player.getUsername().length()));
+        return matchId;
+    }
+
+    private AuthenticatedUser creator(String prefix) {
+        User creator = userRepository.findByUsername(prefix + "_creator").orElseThrow();
+        return new AuthenticatedUser(creator.getId(), creator.getUsername());
+    }
+
+    private long countStatements(Long competitionId, int expectedMatches) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<MatchDto> matches = matchService.getMatchesByCompetition(competitionId);
+
+        assertThat(matches).hasSize(expectedMatches);
+        assertThat(matches).allSatisfy(match -> {
+            assertThat(match.participants()).hasSize(3);
+            assertThat(match.scores()).hasSize(3);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long createCompetitionWithMatches(String prefix, int matchCount) {
+        User creator = userRepository.save(new User(prefix + "_creator", "password", Role.USER));
+        User opponent = userRepository.save(new User(prefix + "_opponent", "password", Role.USER));
+
+        Competition competition = new Competition(prefix, "x", creator);
+        competition.setParticipants(Set.of(creator, opponent));
+        competition = competitionRepository.save(competition);
+
+        Bot bot = botRepository.save(new Bot(prefix + "_bot", competition));
+
+        for (int i = 1; i <= matchCount; i++) {
+            Match match = new Match("Match " + i, competition, i);
+            match.setParticipants(Set.of(creator, opponent));
+            match.setBotParticipants(Set.of(bot));
+            match.getScores().add(new MatchScore(match, creator, i));
+            match.getScores().add(new MatchScore(match, opponent, 1));
+            match.getBotScores().add(new BotScore(match, bot, 0));
+            match.setStatus(MatchStatus.COMPLETED);
+            matchRepository.save(match);
+        }
+        return competition.getId();
+    }
+
+    // Counts the insert statements Hibernate prepares for match_scores (once per JDBC batch)
+    public static class ScoreInsertCounter implements StatementInspector {
+        static final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("insert into match_scores")) {
+                count.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
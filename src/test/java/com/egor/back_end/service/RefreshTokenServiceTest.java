@@ -0,0 +1,115 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.JwtProperties;
+import com.egor.back_end.model.Role;
+import com.egor.back_end.model.User;
+import com.egor.back_end.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+@DataJpaTest(properties = "jwt.refresh-token.reuse-grace=10s")
+@Import({RefreshTokenService.class, RefreshTokenServiceTest.Config.class})
+class RefreshTokenServiceTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(JwtProperties.class)
+    static class Config {}
+
+    @MockitoBean
+    private JwtService jwtService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("refresh_user", "password", Role.USER));
+    }
+
+    @Test
+    void refreshRotatesToken() {
+        String first = refreshTokenService.issue(user);
+
+        String second = refreshTokenService.refresh(first).getRefreshToken();
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(refreshTokenService.refresh(second).getRefreshToken()).isNotEqualTo(second);
+    }
+
+    @Test
+    void reuseWithinGraceIsRejectedWithoutRevokingOtherTokens() {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.refresh(first).getRefreshToken();
+
+        // A parallel refresh that lost the race
+        assertThatIllegalArgumentException().isThrownBy(() -> refreshTokenService.refresh(first));
+
+        assertThat(refreshTokenService.refresh(second).getRefreshToken()).isNotNull();
+    }
+
+    @Test
+    void reuseAfterGraceRevokesAllTokensOfUser() {
+        String first = refreshTokenService.issue(user);
+        String otherSession = refreshTokenService.issue(user);
+        String second = refreshTokenService.refresh(first).getRefreshToken();
+        setRevokedAt(LocalDateTime.now().minusMinutes(1));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> refreshTokenService.refresh(first));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> refreshTokenService.refresh(second));
+        assertThatIllegalArgumentException().isThrownBy(() -> refreshTokenService.refresh(otherSession));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = refreshTokenService.issue(user);
+        entityManager.createQuery("UPDATE RefreshToken t SET t.expiresAt = :at")
+                .setParameter("at", LocalDateTime.now().minusSeconds(1))
+                .executeUpdate();
+        entityManager.clear();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> refreshTokenService.refresh(token))
+                .withMessageContaining("expired");
+    }
+
+    @Test
+    void logoutRevokesOnlyThatToken() {
+        String loggedOut = refreshTokenService.issue(user);
+        String otherSession = refreshTokenService.issue(user);
+
+        refreshTokenService.revoke(loggedOut);
+        refreshTokenService.revoke("unknown");
+
+        assertThatIllegalArgumentException().isThrownBy(() -> refreshTokenService.refresh(loggedOut));
+        assertThat(refreshTokenService.refresh(otherSession).getRefreshToken()).isNotNull();
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> refreshTokenService.refresh("unknown"));
+    }
+
+    private void setRevokedAt(LocalDateTime revokedAt) {
+        entityManager.createQuery("UPDATE RefreshToken t SET t.revokedAt = :at WHERE t.revokedAt IS NOT NULL")
+                .setParameter("at", revokedAt)
+                .executeUpdate();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,151 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.model.Role;
+import com.egor.back_end.model.User;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mutual friend counts and friend suggestions from SocialGraphIndex and from the Set&lt;User&gt; walk
+ * FriendRequestService used before the index, on a random graph with an average of 20 friends per user.
+ * The index is loaded from an in-memory H2 user_friends table. The per-candidate friend request check
+ * of the old code and the username lookup of the new one hit the database and are left out of both.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) org.openjdk.jmh.Main SocialGraphIndexBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SocialGraphIndexBenchmark {
+    private static final int AVERAGE_FRIENDS = 20;
+    private static final int SUGGESTIONS = 10;
+    private static final int SAMPLES = 1024;
+
+    // Friendships, each stored as two user_friends rows
+    @Param({"10000", "100000", "1000000"})
+    public int edges;
+
+    private SocialGraphIndex index;
+    private User[] users;
+    // Users to query, and for mutual counts a user two hops away from each
+    private final int[] sampleUsers = new int[SAMPLES];
+    private final int[] sampleOthers = new int[SAMPLES];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int userCount = edges * 2 / AVERAGE_FRIENDS;
+        Random random = new Random(42);
+
+        users = new User[userCount];
+        for (int i = 0; i < userCount; i++) {
+            users[i] = new User("user" + i, "password", Role.USER);
+            users[i].setId((long) i);
+        }
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:graph" + edges + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user_friends (user_id BIGINT NOT NULL, friend_id BIGINT NOT NULL, "
+                + "PRIMARY KEY (user_id, friend_id))");
+
+        List<Object[]> rows = new ArrayList<>();
+        int created = 0;
+        while (created < edges) {
+            User user = users[random.nextInt(userCount)];
+            User friend = users[random.nextInt(userCount)];
+            if (user == friend || !user.getFriends().add(friend)) continue;
+
+            friend.getFriends().add(user);
+            rows.add(new Object[]{user.getId(), friend.getId()});
+            rows.add(new Object[]{friend.getId(), user.getId()});
+            created++;
+            if (rows.size() >= 10_000) {
+                jdbcTemplate.batchUpdate("INSERT INTO user_friends (user_id, friend_id) VALUES (?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_friends (user_id, friend_id) VALUES (?, ?)", rows);
+
+        index = new SocialGraphIndex(jdbcTemplate);
+        index.reload();
+        jdbcTemplate.execute("DROP TABLE user_friends");
+
+        for (int i = 0; i < SAMPLES; i++) {
+            int user = random.nextInt(userCount);
+            long[] friends = index.friendsOf(user);
+            long[] friendsOfFriend = friends.length > 0 ? index.friendsOf(friends[random.nextInt(friends.length)]) : friends;
+            sampleUsers[i] = user;
+            sampleOthers[i] = friendsOfFriend.length > 0 ? (int) friendsOfFriend[random.nextInt(friendsOfFriend.length)] : user;
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public int mutualFriendsCountEntities() {
+        int sample = next();
+        return mutualFriendsCount(users[sampleUsers[sample]], users[sampleOthers[sample]]);
+    }
+
+    // Sorted merge of the two friend arrays
+    @Benchmark
+    public int mutualFriendsCountIndex() {
+        int sample = next();
+        long[] friends = index.friendsOf(sampleUsers[sample]);
+        long[] otherFriends = index.friendsOf(sampleOthers[sample]);
+        int count = 0;
+        for (int i = 0, j = 0; i < friends.length && j < otherFriends.length; ) {
+            if (friends[i] < otherFriends[j]) i++;
+            else if (friends[i] > otherFriends[j]) j++;
+            else { count++; i++; j++; }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<User> friendSuggestionsEntities() {
+        User user = users[sampleUsers[next()]];
+        Set<User> currentFriends = user.getFriends();
+        Set<User> suggestions = new HashSet<>();
+        for (User friend : currentFriends) {
+            for (User potentialFriend : friend.getFriends()) {
+                if (!potentialFriend.equals(user) && !currentFriends.contains(potentialFriend)) {
+                    suggestions.add(potentialFriend);
+                }
+            }
+        }
+        return suggestions.stream()
+                .sorted((u1, u2) -> Integer.compare(mutualFriendsCount(user, u2), mutualFriendsCount(user, u1)))
+                .limit(SUGGESTIONS)
+                .toList();
+    }
+
+    // Same ranking as FriendSuggestionService.suggestFromIndex
+    @Benchmark
+    public List<Map.Entry<Long, Integer>> friendSuggestionsIndex() {
+        return index.mutualFriendCounts(sampleUsers[next()]).entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(SUGGESTIONS)
+                .toList();
+    }
+
+    private static int mutualFriendsCount(User user1, User user2) {
+        Set<User> mutualFriends = new HashSet<>(user1.getFriends());
+        mutualFriends.retainAll(user2.getFriends());
+        return mutualFriends.size();
+    }
+}
@@ -0,0 +1,101 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.model.*;
+import com.egor.back_end.repository.BotRepository;
+import com.egor.back_end.repository.CompetitionRepository;
+import com.egor.back_end.repository.MatchRepository;
+import com.egor.back_end.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({StandingsService.class, PooledIdAllocator.class})
+class StandingsServiceTest {
+
+    @Autowired
+    private StandingsService standingsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CompetitionRepository competitionRepository;
+    @Autowired
+    private MatchRepository matchRepository;
+    @Autowired
+    private BotRepository botRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void incrementalUpdatesMatchRebuild() {
+        User alice = userRepository.save(new User("standings_alice", "password", Role.USER));
+        User bob = userRepository.save(new User("standings_bob", "password", Role.USER));
+        User carol = userRepository.save(new User("standings_carol", "password", Role.USER));
+
+        Competition competition = new Competition("standings", "x", alice);
+        competition.setParticipants(Set.of(alice, bob, carol));
+        competition = competitionRepository.save(competition);
+        Long competitionId = competition.getId();
+        Bot bot = botRepository.save(new Bot("standings_bot", competition));
+
+        // Alice wins, a three-way draw, and a match with the bot that is later resubmitted
+        Match win = completedMatch(competition, 1, Map.of(alice, 5, bob, 3), Map.of());
+        Match draw = completedMatch(competition, 2, Map.of(alice, 2, bob, 2, carol, 2), Map.of());
+        Match withBot = completedMatch(competition, 3, Map.of(bob, 1, carol, 4), Map.of(bot, 2));
+        // Standings are written with JDBC, the rows they reference must be in the database
+        entityManager.flush();
+        // Matches are applied one by one, so the first result of every participant creates the row
+        standingsService.applyMatch(win);
+        standingsService.applyMatch(draw);
+        standingsService.applyMatch(withBot);
+
+        // Resubmission: the old result is taken out and the new one applied
+        standingsService.revertMatch(withBot);
+        withBot.getBotScores().iterator().next().setScore(9);
+        standingsService.applyMatch(withBot);
+
+        // Deleted match
+        standingsService.revertMatch(draw);
+        matchRepository.delete(draw);
+
+        Map<Long, List<Integer>> incremental = snapshot(competitionId);
+        standingsService.rebuild(competitionId);
+        Map<Long, List<Integer>> rebuilt = snapshot(competitionId);
+
+        assertThat(incremental).isEqualTo(rebuilt);
+        // wins, draws, losses, matches played, points
+        assertThat(rebuilt.get(alice.getId())).containsExactly(1, 0, 0, 1, 5);
+        assertThat(rebuilt.get(carol.getId())).containsExactly(0, 0, 1, 1, 4);
+        assertThat(rebuilt.get(-bot.getId())).containsExactly(1, 0, 0, 1, 9);
+    }
+
+    private Match completedMatch(Competition competition, int number, Map<User, Integer> scores, Map<Bot, Integer> botScores) {
+        Match match = new Match("Match " + number, competition, number);
+        match.setParticipants(scores.keySet());
+        match.setBotParticipants(botScores.keySet());
+        scores.forEach((user, score) -> match.getScores().add(new MatchScore(match, user, score)));
+        botScores.forEach((bot, score) -> match.getBotScores().add(new BotScore(match, bot, score)));
+        match.setStatus(MatchStatus.COMPLETED);
+        return matchRepository.save(match);
+    }
+
+    private Map<Long, List<Integer>> snapshot(Long competitionId) {
+        entityManager.flush();
+        entityManager.clear();
+        return standingsService.getStandings(competitionId).values().stream()
+                // Taking out a participant's only result leaves a row of zeros, rebuild() drops it
+                .filter(standing -> standing.getMatchesPlayed() > 0)
+                .collect(Collectors.toMap(CompetitionStanding::getParticipantId, standing -> List.of(
+                        standing.getWins(), standing.getDraws(), standing.getLosses(),
+                        standing.getMatchesPlayed(), standing.getPointsScored())));
+    }
+}
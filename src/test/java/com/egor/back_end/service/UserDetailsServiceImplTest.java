@@ -0,0 +1,84 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.config.PasswordHashingConfig;
+import com.egor.back_end.model.Role;
+import com.egor.back_end.model.User;
+import com.egor.back_end.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "security.password.bcrypt-strength=5")
+@Import({UserDetailsServiceImpl.class, PasswordHashingConfig.class})
+class UserDetailsServiceImplTest {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void loginRehashesOutdatedPassword() {
+        // Hash from before the {id} prefix, with a lower strength than configured
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        Long id = userRepository.save(new User("rehash_user", oldHash, Role.USER)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        provider.authenticate(new UsernamePasswordAuthenticationToken("rehash_user", "secret"));
+        entityManager.clear();
+
+        String newHash = userRepository.findById(id).orElseThrow().getPassword();
+        assertThat(newHash).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.matches("secret", newHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(newHash)).isFalse();
+    }
+
+    @Test
+    void rehashKeepsConcurrentChanges() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        Long id = userRepository.save(new User("rehash_profile", oldHash, "old@example.com", Role.USER)).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        UserDetails details = userDetailsService.loadUserByUsername("rehash_profile");
+        entityManager.clear();
+        // A profile update commits between the password check and the rehash
+        User current = userRepository.findById(id).orElseThrow();
+        current.setEmail("new@example.com");
+        entityManager.flush();
+        entityManager.clear();
+
+        userDetailsService.updatePassword(details, passwordEncoder.encode("secret"));
+        entityManager.clear();
+
+        User updated = userRepository.findById(id).orElseThrow();
+        assertThat(updated.getEmail()).isEqualTo("new@example.com");
+        assertThat(updated.getPassword()).startsWith("{bcrypt}");
+
+        // A password changed in the meantime is not replaced by a rehash of the old one
+        current = userRepository.findById(id).orElseThrow();
+        current.setPassword(passwordEncoder.encode("changed"));
+        entityManager.flush();
+        userDetailsService.updatePassword(details, passwordEncoder.encode("secret"));
+        entityManager.clear();
+
+        assertThat(passwordEncoder.matches("changed", userRepository.findById(id).orElseThrow().getPassword())).isTrue();
+    }
+}
@@ -0,0 +1,104 @@
+package com.egor.back_end.service;
+
+import com.egor.back_end.BackEndApplication;
+import com.egor.back_end.dto.user.UserDto;
+import com.egor.back_end.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Username prefix search from UsernamePrefixIndex and from UserRepository.searchByUsernamePrefix,
+ * against the application's schema on an in-memory H2 database filled with random usernames.
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) org.openjdk.jmh.Main UsernamePrefixIndexBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@State(Scope.Benchmark)
+public class UsernamePrefixIndexBenchmark {
+    private static final int LIMIT = 5;
+    private static final int SAMPLES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private UsernamePrefixIndex index;
+    private UserRepository userRepository;
+    // Three-letter prefixes of existing usernames, like a user typing
+    private final String[] prefixes = new String[SAMPLES];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // As arguments, so they override application.properties
+        context = new SpringApplicationBuilder(BackEndApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:usernames;DB_CLOSE_DELAY=-1",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // Keeps the index's load line, which reports its memory footprint
+                "--logging.level.com.egor.back_end.service.UsernamePrefixIndex=INFO");
+        index = context.getBean(UsernamePrefixIndex.class);
+        userRepository = context.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        // IDs far above the sequence, usernames are random letters with a unique suffix
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            StringBuilder username = new StringBuilder();
+            for (int c = 0; c < 6; c++) {
+                username.append((char) ('a' + random.nextInt(26)));
+            }
+            username.append(i);
+            rows.add(new Object[]{1_000_000_000L + i, username.toString(), "password", username + "@example.com", "USER"});
+            if (i < SAMPLES) {
+                prefixes[i] = username.substring(0, 3);
+            }
+            if (rows.size() == 10_000) {
+                insert(jdbcTemplate, rows);
+            }
+        }
+        insert(jdbcTemplate, rows);
+        index.reload();
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, email, role) VALUES (?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return prefixes[cursor];
+    }
+
+    @Benchmark
+    public List<UserDto> index() {
+        return index.searchPrefix(next(), LIMIT);
+    }
+
+    @Benchmark
+    public List<UserDto> sql() {
+        return userRepository.searchByUsernamePrefix(next() + "%", Limit.of(LIMIT));
+    }
+}